@@ -4,22 +4,31 @@ import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.support.v7.app.ActionBarActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.BaseAdapter;
 import android.widget.ImageView;
-import android.widget.ListView;
 import android.widget.TextView;
+import com.pzj.library.AvatarBinder;
+import com.pzj.library.AvatarMemoryController;
+import com.pzj.library.CheckableTextDrawable;
 import com.pzj.library.ColorGenerator;
 import com.pzj.library.TextDrawable;
+import com.pzj.library.TextDrawableFactory;
 import com.pzj.textdrawable.data.DrawableProvider;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class ListActivity extends ActionBarActivity {
 
     private static final int HIGHLIGHT_COLOR = 0x999be6ff;
 
+    // partial rebind, only the checked state changed
+    private static final Object PAYLOAD_CHECKED = new Object();
+
     // list of data items
     private List<ListData> mDataList = Arrays.asList(new ListData("张三"), new ListData("李四"), new ListData("王五"), new ListData("Harry Potter"), new ListData("Sherlock Holmes"), new ListData("Black Widow"), new ListData("Hawk Eye"), new ListData("Iron Man"), new ListData("Guava"), new ListData("Tomato"), new ListData("Pineapple"), new ListData("Strawberry"), new ListData("Watermelon"), new ListData("Pears"), new ListData("Kiwi"), new ListData("Plums"));
 
@@ -27,104 +36,142 @@ public class ListActivity extends ActionBarActivity {
     private ColorGenerator mColorGenerator = ColorGenerator.MATERIAL;
     private TextDrawable.IBuilder mDrawableBuilder;
 
+    // share paints and shapes between rows showing the same avatar
+    private TextDrawableFactory mDrawableFactory = TextDrawableFactory.create(64);
+
+    // prepares avatars for rows about to scroll in
+    private AvatarBinder mAvatarBinder;
+
+    // shrink the shared states and paints when the system is low on memory, one controller per process
+    private AvatarMemoryController mMemoryController;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_list);
 
+        mMemoryController = AvatarMemoryController.install(this);
+        mMemoryController.register(mDrawableFactory);
+
         Intent intent = getIntent();
         int type = intent.getIntExtra(MainActivity.TYPE, DrawableProvider.SAMPLE_RECT);
 
-        // initialize the builder based on the "TYPE"
+        // initialize the builder based on the "TYPE", colors come from the palette
+        TextDrawable.IConfigBuilder config = TextDrawable.builder().beginConfig().palette(mColorGenerator);
         switch (type) {
             case DrawableProvider.SAMPLE_RECT:
-                mDrawableBuilder = TextDrawable.builder().rect();
+                mDrawableBuilder = config.endConfig().rect();
                 break;
             case DrawableProvider.SAMPLE_ROUND_RECT:
-                mDrawableBuilder = TextDrawable.builder().roundRect(10);
+                mDrawableBuilder = config.endConfig().roundRect(10);
                 break;
             case DrawableProvider.SAMPLE_ROUND:
-                mDrawableBuilder = TextDrawable.builder().round();
+                mDrawableBuilder = config.endConfig().round();
                 break;
             case DrawableProvider.SAMPLE_RECT_BORDER:
-                mDrawableBuilder = TextDrawable.builder().beginConfig().withBorder(4).endConfig().rect();
+                mDrawableBuilder = config.withBorder(4).endConfig().rect();
                 break;
             case DrawableProvider.SAMPLE_ROUND_RECT_BORDER:
-                mDrawableBuilder = TextDrawable.builder().beginConfig().withBorder(4).endConfig().roundRect(10);
+                mDrawableBuilder = config.withBorder(4).endConfig().roundRect(10);
                 break;
             case DrawableProvider.SAMPLE_ROUND_BORDER:
-                mDrawableBuilder = TextDrawable.builder().beginConfig().withBorder(4).endConfig().round();
+                mDrawableBuilder = config.withBorder(4).endConfig().round();
                 break;
         }
 
-        // init the list view and its adapter
-        ListView listView = (ListView) findViewById(R.id.listView);
-        listView.setAdapter(new SampleAdapter());
+        // init the recycler view and its adapter
+        mAvatarBinder = AvatarBinder.create(mDrawableBuilder.toTemplate(), mDrawableFactory);
+        SampleAdapter adapter = new SampleAdapter();
+        RecyclerView recyclerView = (RecyclerView) findViewById(R.id.recyclerView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        mAvatarBinder.attach(recyclerView, adapter);
     }
 
-    private class SampleAdapter extends BaseAdapter {
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // the caps stay shrunk after the ui was hidden, the system does not call back when it is shown again
+        mMemoryController.restore();
+    }
+
+    @Override
+    protected void onDestroy() {
+        mAvatarBinder.detach();
+        mMemoryController.unregister(mDrawableFactory);
+        super.onDestroy();
+    }
+
+    private class SampleAdapter extends RecyclerView.Adapter<ViewHolder> implements AvatarBinder.Source {
 
         @Override
-        public int getCount() {
+        public int getItemCount() {
             return mDataList.size();
         }
 
         @Override
-        public ListData getItem(int position) {
-            return mDataList.get(position);
+        public String getAvatarName(int position) {
+            return mDataList.get(position).data;
         }
 
         @Override
-        public long getItemId(int position) {
-            return position;
+        public int getAvatarPaletteIndex(int position) {
+            return mColorGenerator.getColorIndex(mDataList.get(position).data);
         }
 
         @Override
-        public View getView(final int position, View convertView, ViewGroup parent) {
-            final ViewHolder holder;
-            if (convertView == null) {
-                convertView = View.inflate(ListActivity.this, R.layout.list_item_layout, null);
-                holder = new ViewHolder(convertView);
-                convertView.setTag(holder);
-            }
-            else {
-                holder = (ViewHolder) convertView.getTag();
-            }
-
-            ListData item = getItem(position);
-
-            // provide support for selected state
-            updateCheckedState(holder, item);
+        public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(ListActivity.this).inflate(R.layout.list_item_layout, parent, false);
+            final ViewHolder holder = new ViewHolder(view);
+            // the avatar is wrapped, so it is not set through bind(): let the binder learn its size for prefetching
+            mAvatarBinder.trackItemSize(holder.imageView);
             holder.imageView.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
                     // when the image is clicked, update the selected state
-                    ListData data = getItem(position);
+                    int position = holder.getAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    ListData data = mDataList.get(position);
                     data.setChecked(!data.isChecked);
-                    updateCheckedState(holder, data);
+                    notifyItemChanged(position, PAYLOAD_CHECKED);
                 }
             });
-            holder.textView.setText(item.data);
+            return holder;
+        }
 
-            return convertView;
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position) {
+            onBindViewHolder(holder, position, Collections.<Object>emptyList());
         }
 
-        private void updateCheckedState(ViewHolder holder, ListData item) {
-            if (item.isChecked) {
-                holder.imageView.setImageDrawable(mDrawableBuilder.build(" ", 0xff616161, Color.WHITE));
-                holder.view.setBackgroundColor(HIGHLIGHT_COLOR);
-                holder.checkIcon.setVisibility(View.VISIBLE);
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, List<Object> payloads) {
+            ListData item = mDataList.get(position);
+
+            // the avatar carries both faces, toggling only flips its state
+            if (AvatarBinder.needsAvatarBind(payloads)) {
+                holder.imageView.setImageDrawable(getAvatar(item));
+                holder.textView.setText(item.data);
             }
-            else {
-                TextDrawable drawable = mDrawableBuilder.build(item.data, mColorGenerator.getColor(item.data), Color.WHITE);
-                holder.imageView.setImageDrawable(drawable);
-                holder.view.setBackgroundColor(Color.TRANSPARENT);
-                holder.checkIcon.setVisibility(View.GONE);
+            updateCheckedState(holder, item, payloads.contains(PAYLOAD_CHECKED));
+        }
+
+        private CheckableTextDrawable getAvatar(ListData item) {
+            if (item.avatar == null) {
+                item.avatar = CheckableTextDrawable.create(mAvatarBinder.obtain(item.data, mColorGenerator.getColorIndex(item.data)));
             }
+            return item.avatar;
+        }
+
+        private void updateCheckedState(ViewHolder holder, ListData item, boolean animate) {
+            getAvatar(item).setChecked(item.isChecked, animate);
+            holder.view.setBackgroundColor(item.isChecked ? HIGHLIGHT_COLOR : Color.TRANSPARENT);
         }
     }
 
-    private static class ViewHolder {
+    private static class ViewHolder extends RecyclerView.ViewHolder {
 
         private View view;
 
@@ -132,13 +179,11 @@ public class ListActivity extends ActionBarActivity {
 
         private TextView textView;
 
-        private ImageView checkIcon;
-
         private ViewHolder(View view) {
+            super(view);
             this.view = view;
             imageView = (ImageView) view.findViewById(R.id.imageView);
             textView = (TextView) view.findViewById(R.id.textView);
-            checkIcon = (ImageView) view.findViewById(R.id.check_icon);
         }
     }
 
@@ -148,6 +193,8 @@ public class ListActivity extends ActionBarActivity {
 
         private boolean isChecked;
 
+        private CheckableTextDrawable avatar;
+
         public ListData(String data) {
             this.data = data;
         }
@@ -1,7 +1,7 @@
 package com.pzj.textdrawable;
 
 import android.content.Intent;
-import android.graphics.drawable.AnimationDrawable;
+import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.support.v7.app.ActionBarActivity;
@@ -93,13 +93,13 @@ public class MainActivity extends ActionBarActivity implements AdapterView.OnIte
                 holder.textView.setCompoundDrawablesWithIntrinsicBounds(null, null, null, null);
             }
 
-            // fix for animation not playing for some below 4.4 devices
-            if (drawable instanceof AnimationDrawable) {
+            // restart once attached, frames are scheduled through the view (also fixes some below 4.4 devices)
+            if (drawable instanceof Animatable) {
                 holder.imageView.post(new Runnable() {
                     @Override
                     public void run() {
-                        ((AnimationDrawable) drawable).stop();
-                        ((AnimationDrawable) drawable).start();
+                        ((Animatable) drawable).stop();
+                        ((Animatable) drawable).start();
                     }
                 });
             }
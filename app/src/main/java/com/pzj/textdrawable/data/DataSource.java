@@ -78,7 +78,7 @@ public class DataSource {
                 type = NO_NAVIGATION;
                 break;
             case DrawableProvider.SAMPLE_SIZE:
-                label = "Support for custom size";
+                label = "Support for group avatars";
                 drawable = mProvider.getRectWithCustomSize();
                 type = NO_NAVIGATION;
                 break;
@@ -4,12 +4,12 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Color;
 import android.graphics.Typeface;
-import android.graphics.drawable.AnimationDrawable;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.InsetDrawable;
-import android.graphics.drawable.LayerDrawable;
 import android.util.TypedValue;
 import com.pzj.library.ColorGenerator;
+import com.pzj.library.CounterTextDrawable;
+import com.pzj.library.GroupTextDrawable;
+import com.pzj.library.LazyTextDrawable;
 import com.pzj.library.TextDrawable;
 
 /**
@@ -38,68 +38,68 @@ public class DrawableProvider {
         mContext = context;
     }
 
-    public TextDrawable getRect(String text) {
-        return TextDrawable.builder().buildRect(text, mGenerator.getColor(text), mGenerator.getRandomColor());
+    public Drawable getRect(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).endConfig().rect().spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRound(String text) {
-        return TextDrawable.builder().buildRound(text, mGenerator.getColor(text), mGenerator.getRandomColor());
+    public Drawable getRound(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).endConfig().round().spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRoundRect(String text) {
-        return TextDrawable.builder().buildRoundRect(text, mGenerator.getColor(text), toPx(10), mGenerator.getRandomColor());
+    public Drawable getRoundRect(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).endConfig().roundRect(toPx(10)).spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRectWithBorder(String text) {
-        return TextDrawable.builder().beginConfig().withBorder(toPx(2)).endConfig().buildRect(text, mGenerator.getColor(text), mGenerator.getRandomColor());
+    public Drawable getRectWithBorder(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).withBorder(toPx(2)).endConfig().rect().spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRoundWithBorder(String text) {
-        return TextDrawable.builder().beginConfig().withBorder(toPx(2)).endConfig().buildRound(text, mGenerator.getColor(text), mGenerator.getRandomColor());
+    public Drawable getRoundWithBorder(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).withBorder(toPx(2)).endConfig().round().spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRoundRectWithBorder(String text) {
-        return TextDrawable.builder().beginConfig().withBorder(toPx(2)).endConfig().buildRoundRect(text, mGenerator.getColor(text), mGenerator.getRandomColor(), toPx(10));
+    public Drawable getRoundRectWithBorder(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).withBorder(toPx(2)).endConfig().roundRect(toPx(10)).spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRectWithMultiLetter() {
+    public Drawable getRectWithMultiLetter() {
         String text = "AK";
-        return TextDrawable.builder().beginConfig().fontSize(toPx(20)).toUpperCase().endConfig().buildRect(text, mGenerator.getColor(text), mGenerator.getRandomColor());
+        // shrink the text until both letters fit inside the rect
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().palette(mGenerator).fontSize(toPx(30)).autoFit().toUpperCase().endConfig().rect().spec(text, mGenerator.getColorIndex(text)));
     }
 
-    public TextDrawable getRoundWithCustomFont() {
+    public Drawable getRoundWithCustomFont() {
         String text = "Bold";
-        return TextDrawable.builder().beginConfig().useFont(Typeface.DEFAULT).fontSize(toPx(15)).textColor(0xfff58559).bold().endConfig().buildRect(text, Color.DKGRAY, mGenerator.getRandomColor());
+        return LazyTextDrawable.create(TextDrawable.builder().beginConfig().useFont(Typeface.DEFAULT).fontSize(toPx(15)).textColor(0xfff58559).bold().endConfig().rect().spec(text, Color.DKGRAY, mGenerator.getRandomColor()));
     }
 
     public Drawable getRectWithCustomSize() {
         String leftText = "I";
         String rightText = "J";
 
-        TextDrawable.IBuilder builder = TextDrawable.builder().beginConfig().width(toPx(29)).withBorder(toPx(2)).endConfig().rect();
+        TextDrawable.IBuilder builder = TextDrawable.builder().beginConfig().palette(mGenerator).withBorder(toPx(2)).endConfig().rect();
 
-        TextDrawable left = builder.build(leftText, mGenerator.getColor(leftText), mGenerator.getRandomColor());
-
-        TextDrawable right = builder.build(rightText, mGenerator.getColor(rightText), mGenerator.getRandomColor());
-
-        Drawable[] layerList = {
-            new InsetDrawable(left, 0, 0, toPx(31), 0), new InsetDrawable(right, toPx(31), 0, 0, 0)
-        };
-        return new LayerDrawable(layerList);
+        // both initials in one drawable, drawn in a single pass
+        return GroupTextDrawable.create(builder.spec(leftText, mGenerator.getColorIndex(leftText)), builder.spec(rightText, mGenerator.getColorIndex(rightText)));
     }
 
     public Drawable getRectWithAnimation() {
-        TextDrawable.IBuilder builder = TextDrawable.builder().rect();
-
-        AnimationDrawable animationDrawable = new AnimationDrawable();
-        for (int i = 10; i > 0; i--) {
-            TextDrawable frame = builder.build(String.valueOf(i), mGenerator.getRandomColor(), mGenerator.getRandomColor());
-            animationDrawable.addFrame(frame, 1200);
-        }
-        animationDrawable.setOneShot(false);
-        animationDrawable.start();
-
-        return animationDrawable;
+        TextDrawable.IBuilder builder = TextDrawable.builder().beginConfig().palette(mGenerator).endConfig().rect();
+
+        // one drawable counting down, only the number and colors change per frame
+        CounterTextDrawable counter = CounterTextDrawable.create(builder.spec("", mGenerator.getRandomColorIndex()));
+        counter.setRange(10, 1);
+        counter.setInterval(1200);
+        counter.setLooping(true);
+        counter.setOnTickListener(new CounterTextDrawable.OnTickListener() {
+            @Override
+            public void onTick(CounterTextDrawable drawable, int value) {
+                drawable.setColors(mGenerator, mGenerator.getRandomColorIndex());
+            }
+        });
+        counter.start();
+
+        return counter;
     }
 
     public int toPx(int dp) {
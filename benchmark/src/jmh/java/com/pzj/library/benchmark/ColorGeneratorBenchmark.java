@@ -0,0 +1,58 @@
+package com.pzj.library.benchmark;
+
+import com.pzj.library.ColorGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * ColorGenerator 基准测试，单线程及多线程（每核一个线程）下的单次调用耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ColorGeneratorBenchmark {
+
+    private final ColorGenerator mGenerator = ColorGenerator.MATERIAL;
+
+    private String[] mNames;
+    private int      mIndex;
+
+    @Setup
+    public void setUp() {
+        mNames = Names.create(1024);
+    }
+
+    private String nextName() {
+        mIndex = (mIndex + 1) & (mNames.length - 1);
+        return mNames[mIndex];
+    }
+
+    @Benchmark
+    public int getColor() {
+        return mGenerator.getColor(nextName());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int getColor_contended() {
+        return mGenerator.getColor(nextName());
+    }
+
+    @Benchmark
+    public int getRandomColor() {
+        return mGenerator.getRandomColor();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int getRandomColor_contended() {
+        return mGenerator.getRandomColor();
+    }
+}
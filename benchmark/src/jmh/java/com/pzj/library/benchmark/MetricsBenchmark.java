@@ -0,0 +1,47 @@
+package com.pzj.library.benchmark;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import com.pzj.library.MetricsRecorder;
+import com.pzj.library.TextDrawable;
+import com.pzj.library.TextDrawableMetrics;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 注册 MetricsRecorder 后的绘制开销，与 TextDrawableBenchmark.draw 对比
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    private TextDrawable mDrawable;
+    private Canvas       mCanvas;
+
+    @Setup
+    public void setUp() {
+        TextDrawableMetrics.register(new MetricsRecorder());
+        mDrawable = TextDrawable.builder().buildRect("A", Color.WHITE, 0xffe57373);
+        mDrawable.setBounds(0, 0, 120, 120);
+        mCanvas = new Canvas();
+    }
+
+    @TearDown
+    public void tearDown() {
+        TextDrawableMetrics.register(null);
+    }
+
+    @Benchmark
+    public int drawWithMetrics() {
+        mDrawable.draw(mCanvas);
+        return mCanvas.ops;
+    }
+}
@@ -0,0 +1,21 @@
+package com.pzj.library.benchmark;
+
+/**
+ * 基准测试用的名字
+ */
+final class Names {
+
+    private static final String[] FIRST = { "Harry", "Sherlock", "Black", "Hawk", "Iron", "Guava", "Tomato", "Kiwi", "张", "李", "王", "赵" };
+    private static final String[] LAST  = { "Potter", "Holmes", "Widow", "Eye", "Man", "三", "四", "五" };
+
+    private Names() {
+    }
+
+    static String[] create(int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = FIRST[i % FIRST.length] + ' ' + LAST[(i / FIRST.length) % LAST.length] + i;
+        }
+        return names;
+    }
+}
@@ -0,0 +1,105 @@
+package com.pzj.library.benchmark;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import com.pzj.library.ColorGenerator;
+import com.pzj.library.TextDrawable;
+import com.pzj.library.TextDrawableFactory;
+import com.pzj.library.TextDrawableSpec;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TextDrawable 基准测试：Builder 链式调用、图像构造及绘制
+ *
+ * 以吞吐量计，配合 gc 分析器查看每次操作分配的字节数（gc.alloc.rate.norm）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class TextDrawableBenchmark {
+
+    private static final int SIZE = 120;
+
+    private final ColorGenerator mGenerator = ColorGenerator.MATERIAL;
+
+    private String[]              mNames;
+    private int                   mIndex;
+    private TextDrawable.IBuilder mBuilder;
+    private TextDrawableFactory   mFactory;
+    private TextDrawableSpec      mSpec;
+    private TextDrawable          mDrawable;
+    private TextDrawable          mBorderDrawable;
+    private Canvas                mCanvas;
+
+    @Setup
+    public void setUp() {
+        mNames = Names.create(256);
+        mBuilder = TextDrawable.builder().round();
+        mFactory = TextDrawableFactory.create(mNames.length);
+        mSpec = mBuilder.spec("A", Color.WHITE, mGenerator.getColor("A"));
+
+        mDrawable = TextDrawable.builder().buildRect("A", Color.WHITE, mGenerator.getColor("A"));
+        mDrawable.setBounds(0, 0, SIZE, SIZE);
+        mBorderDrawable = TextDrawable.builder().beginConfig().withBorder(4).endConfig().buildRoundRect("B", Color.WHITE, mGenerator.getColor("B"), 10);
+        mBorderDrawable.setBounds(0, 0, SIZE, SIZE);
+        mCanvas = new Canvas();
+    }
+
+    private String nextName() {
+        mIndex = (mIndex + 1) & (mNames.length - 1);
+        return mNames[mIndex];
+    }
+
+    @Benchmark
+    public TextDrawable.IShapeBuilder builder() {
+        return TextDrawable.builder();
+    }
+
+    @Benchmark
+    public TextDrawable buildRect() {
+        String name = nextName();
+        return TextDrawable.builder().buildRect(name, Color.WHITE, mGenerator.getColor(name));
+    }
+
+    @Benchmark
+    public TextDrawable buildRound() {
+        String name = nextName();
+        return TextDrawable.builder().buildRound(name, Color.WHITE, mGenerator.getColor(name));
+    }
+
+    @Benchmark
+    public TextDrawable buildRoundRect() {
+        String name = nextName();
+        return TextDrawable.builder().beginConfig().withBorder(4).endConfig().buildRoundRect(name, Color.WHITE, mGenerator.getColor(name), 10);
+    }
+
+    @Benchmark
+    public TextDrawable construct() {
+        return TextDrawable.create(mSpec);
+    }
+
+    @Benchmark
+    public TextDrawable factoryObtain() {
+        String name = nextName();
+        return mFactory.obtain(mBuilder.spec(name, Color.WHITE, mGenerator.getColor(name)));
+    }
+
+    @Benchmark
+    public int draw() {
+        mDrawable.draw(mCanvas);
+        return mCanvas.ops;
+    }
+
+    @Benchmark
+    public int drawWithBorder() {
+        mBorderDrawable.draw(mCanvas);
+        return mCanvas.ops;
+    }
+}
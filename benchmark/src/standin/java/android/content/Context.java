@@ -0,0 +1,15 @@
+package android.content;
+
+/**
+ * JVM stand-in: only what the library uses to register memory callbacks.
+ */
+public abstract class Context {
+
+    public abstract Context getApplicationContext();
+
+    public void registerComponentCallbacks(ComponentCallbacks callback) {
+    }
+
+    public void unregisterComponentCallbacks(ComponentCallbacks callback) {
+    }
+}
@@ -0,0 +1,51 @@
+package android.graphics;
+
+/**
+ * JVM stand-in: only keeps the size and whether it was recycled.
+ */
+public final class Bitmap {
+
+    public enum Config {
+        ARGB_8888
+    }
+
+    private final int width;
+    private final int height;
+
+    private boolean recycled;
+
+    private Bitmap(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        return new Bitmap(width, height);
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getByteCount() {
+        return this.width * this.height * 4;
+    }
+
+    public void recycle() {
+        this.recycled = true;
+    }
+
+    public boolean isRecycled() {
+        return this.recycled;
+    }
+
+    public void copyPixelsToBuffer(java.nio.Buffer dst) {
+    }
+
+    public void copyPixelsFromBuffer(java.nio.Buffer src) {
+    }
+}
@@ -0,0 +1,125 @@
+package android.graphics;
+
+import java.util.List;
+
+/**
+ * JVM stand-in: records the number of draw operations instead of rasterizing.
+ * Tests that need the operations themselves set {@link #recorded}; it stays null otherwise so drawing does not allocate.
+ */
+public class Canvas {
+
+    public int      ops;
+    public List<Op> recorded;
+
+    /**
+     * A recorded draw operation: its name, the paint's effective color (alpha included) and color filter.
+     */
+    public static final class Op {
+
+        public final String      name;
+        public final int         color;
+        public final ColorFilter colorFilter;
+        public final float[]     args;
+
+        Op(String name, Paint paint, float... args) {
+            this.name = name;
+            this.color = (paint.getColor() & 0x00ffffff) | (paint.getAlpha() << 24);
+            this.colorFilter = paint.getColorFilter();
+            this.args = args;
+        }
+
+        public int alpha() {
+            return this.color >>> 24;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " #" + Integer.toHexString(this.color) + " " + java.util.Arrays.toString(this.args);
+        }
+    }
+
+    private boolean recording(Paint paint) {
+        this.ops++;
+        return this.recorded != null && paint != null;
+    }
+
+    public Canvas() {
+    }
+
+    public Canvas(Bitmap bitmap) {
+    }
+
+    public void setBitmap(Bitmap bitmap) {
+    }
+
+    public int save() {
+        return ++this.ops;
+    }
+
+    public void restoreToCount(int count) {
+        this.ops++;
+    }
+
+    public void translate(float dx, float dy) {
+        this.ops++;
+    }
+
+    public boolean clipRect(Rect rect) {
+        this.ops++;
+        return true;
+    }
+
+    public void drawColor(int color, PorterDuff.Mode mode) {
+        this.ops++;
+    }
+
+    public void drawText(String text, float x, float y, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawText", paint, x, y));
+        }
+    }
+
+    public void drawRect(RectF rect, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawRect", paint, rect.left, rect.top, rect.right, rect.bottom));
+        }
+    }
+
+    public void drawOval(RectF oval, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawOval", paint, oval.left, oval.top, oval.right, oval.bottom));
+        }
+    }
+
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawRoundRect", paint, rect.left, rect.top, rect.right, rect.bottom, rx, ry));
+        }
+    }
+
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        this.ops++;
+    }
+
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        this.ops++;
+    }
+
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawArc", paint, startAngle, sweepAngle));
+        }
+    }
+
+    public void drawPath(Path path, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawPath", paint, path.bounds.left, path.bounds.top, path.bounds.right, path.bounds.bottom));
+        }
+    }
+
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        if (recording(paint)) {
+            this.recorded.add(new Op("drawLine", paint, startX, startY, stopX, stopY));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package android.graphics;
+
+/**
+ * JVM stand-in: keeps the state TextDrawable reads back, approximates font metrics from the text size.
+ */
+public class Paint {
+
+    public static final int ANTI_ALIAS_FLAG = 0x01;
+
+    public enum Style {
+        FILL, STROKE
+    }
+
+    public enum Align {
+        LEFT, CENTER, RIGHT
+    }
+
+    private int         color;
+    private int         alpha = 0xff;
+    private float       textSize;
+    private float       strokeWidth;
+    private boolean     antiAlias;
+    private boolean     fakeBold;
+    private Style       style;
+    private Align       align;
+    private Typeface    typeface;
+    private ColorFilter colorFilter;
+
+    public Paint() {
+    }
+
+    public Paint(int flags) {
+        this.antiAlias = (flags & ANTI_ALIAS_FLAG) != 0;
+    }
+
+    public Paint(Paint paint) {
+        this.color = paint.color;
+        this.alpha = paint.alpha;
+        this.textSize = paint.textSize;
+        this.strokeWidth = paint.strokeWidth;
+        this.antiAlias = paint.antiAlias;
+        this.fakeBold = paint.fakeBold;
+        this.style = paint.style;
+        this.align = paint.align;
+        this.typeface = paint.typeface;
+        this.colorFilter = paint.colorFilter;
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+        this.alpha = color >>> 24;
+    }
+
+    public int getColor() {
+        return this.color;
+    }
+
+    public void setAlpha(int alpha) {
+        this.alpha = alpha;
+    }
+
+    public int getAlpha() {
+        return this.alpha;
+    }
+
+    public void setTextSize(float textSize) {
+        this.textSize = textSize;
+    }
+
+    public float getTextSize() {
+        return this.textSize;
+    }
+
+    public float ascent() {
+        return -0.93f * this.textSize;
+    }
+
+    public float descent() {
+        return 0.24f * this.textSize;
+    }
+
+    public float measureText(String text) {
+        return text.length() * 0.55f * this.textSize;
+    }
+
+    public void setStrokeWidth(float strokeWidth) {
+        this.strokeWidth = strokeWidth;
+    }
+
+    public void setAntiAlias(boolean antiAlias) {
+        this.antiAlias = antiAlias;
+    }
+
+    public void setFakeBoldText(boolean fakeBold) {
+        this.fakeBold = fakeBold;
+    }
+
+    public void setStyle(Style style) {
+        this.style = style;
+    }
+
+    public void setTextAlign(Align align) {
+        this.align = align;
+    }
+
+    public void setTypeface(Typeface typeface) {
+        this.typeface = typeface;
+    }
+
+    public ColorFilter setColorFilter(ColorFilter colorFilter) {
+        this.colorFilter = colorFilter;
+        return colorFilter;
+    }
+
+    public ColorFilter getColorFilter() {
+        return this.colorFilter;
+    }
+}
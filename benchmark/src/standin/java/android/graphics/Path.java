@@ -0,0 +1,24 @@
+package android.graphics;
+
+/**
+ * JVM stand-in: keeps the last rounded rectangle added, enough for the shapes the library builds.
+ */
+public class Path {
+
+    public enum Direction {
+        CW, CCW
+    }
+
+    public final RectF   bounds = new RectF();
+    public final float[] radii  = new float[8];
+
+    public void reset() {
+        this.bounds.set(0, 0, 0, 0);
+        java.util.Arrays.fill(this.radii, 0);
+    }
+
+    public void addRoundRect(RectF rect, float[] radii, Direction dir) {
+        this.bounds.set(rect.left, rect.top, rect.right, rect.bottom);
+        System.arraycopy(radii, 0, this.radii, 0, this.radii.length);
+    }
+}
@@ -0,0 +1,9 @@
+package android.graphics;
+
+public class PixelFormat {
+
+    public static final int UNKNOWN     = 0;
+    public static final int TRANSLUCENT = -3;
+    public static final int TRANSPARENT = -2;
+    public static final int OPAQUE      = -1;
+}
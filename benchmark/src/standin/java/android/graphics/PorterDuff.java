@@ -0,0 +1,8 @@
+package android.graphics;
+
+public class PorterDuff {
+
+    public enum Mode {
+        CLEAR
+    }
+}
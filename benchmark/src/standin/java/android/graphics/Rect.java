@@ -0,0 +1,39 @@
+package android.graphics;
+
+public final class Rect {
+
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public Rect() {
+    }
+
+    public Rect(int left, int top, int right, int bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(Rect src) {
+        set(src.left, src.top, src.right, src.bottom);
+    }
+
+    public int width() {
+        return this.right - this.left;
+    }
+
+    public int height() {
+        return this.bottom - this.top;
+    }
+
+    public boolean isEmpty() {
+        return this.left >= this.right || this.top >= this.bottom;
+    }
+}
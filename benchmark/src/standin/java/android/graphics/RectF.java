@@ -0,0 +1,32 @@
+package android.graphics;
+
+public class RectF {
+
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public final float width() {
+        return this.right - this.left;
+    }
+
+    public final float height() {
+        return this.bottom - this.top;
+    }
+
+    public final float centerX() {
+        return (this.left + this.right) * 0.5f;
+    }
+
+    public final float centerY() {
+        return (this.top + this.bottom) * 0.5f;
+    }
+}
@@ -0,0 +1,12 @@
+package android.graphics;
+
+public class Typeface {
+
+    public static final int NORMAL = 0;
+
+    public static final Typeface DEFAULT = new Typeface();
+
+    public static Typeface create(String familyName, int style) {
+        return new Typeface();
+    }
+}
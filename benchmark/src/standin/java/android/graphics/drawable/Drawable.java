@@ -0,0 +1,139 @@
+package android.graphics.drawable;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+
+public abstract class Drawable {
+
+    private final Rect mBounds = new Rect();
+
+    private Callback mCallback;
+    private boolean  mVisible = true;
+
+    public interface Callback {
+
+        void invalidateDrawable(Drawable who);
+
+        void scheduleDrawable(Drawable who, Runnable what, long when);
+
+        void unscheduleDrawable(Drawable who, Runnable what);
+    }
+
+    public abstract static class ConstantState {
+
+        public abstract Drawable newDrawable();
+
+        public abstract int getChangingConfigurations();
+    }
+
+    public abstract void draw(Canvas canvas);
+
+    public abstract void setAlpha(int alpha);
+
+    public abstract void setColorFilter(ColorFilter colorFilter);
+
+    public abstract int getOpacity();
+
+    public void setBounds(int left, int top, int right, int bottom) {
+        Rect bounds = this.mBounds;
+        if (bounds.left != left || bounds.top != top || bounds.right != right || bounds.bottom != bottom) {
+            bounds.set(left, top, right, bottom);
+            onBoundsChange(bounds);
+        }
+    }
+
+    public void setBounds(Rect bounds) {
+        setBounds(bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
+    public final Rect getBounds() {
+        return this.mBounds;
+    }
+
+    protected void onBoundsChange(Rect bounds) {
+    }
+
+    public int getIntrinsicWidth() {
+        return -1;
+    }
+
+    public int getIntrinsicHeight() {
+        return -1;
+    }
+
+    public int getAlpha() {
+        return 0xff;
+    }
+
+    public ColorFilter getColorFilter() {
+        return null;
+    }
+
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = this.mVisible != visible;
+        this.mVisible = visible;
+        if (changed) {
+            invalidateSelf();
+        }
+        return changed;
+    }
+
+    public final boolean isVisible() {
+        return this.mVisible;
+    }
+
+    public Drawable mutate() {
+        return this;
+    }
+
+    public ConstantState getConstantState() {
+        return null;
+    }
+
+    public final void setCallback(Callback callback) {
+        this.mCallback = callback;
+    }
+
+    public Callback getCallback() {
+        return this.mCallback;
+    }
+
+    public void invalidateSelf() {
+        Callback callback = this.mCallback;
+        if (callback != null) {
+            callback.invalidateDrawable(this);
+        }
+    }
+
+    public void scheduleSelf(Runnable what, long when) {
+        Callback callback = this.mCallback;
+        if (callback != null) {
+            callback.scheduleDrawable(this, what, when);
+        }
+    }
+
+    public void unscheduleSelf(Runnable what) {
+        Callback callback = this.mCallback;
+        if (callback != null) {
+            callback.unscheduleDrawable(this, what);
+        }
+    }
+
+    public static int resolveOpacity(int op1, int op2) {
+        if (op1 == op2) {
+            return op1;
+        }
+        if (op1 == PixelFormat.UNKNOWN || op2 == PixelFormat.UNKNOWN) {
+            return PixelFormat.UNKNOWN;
+        }
+        if (op1 == PixelFormat.TRANSLUCENT || op2 == PixelFormat.TRANSLUCENT) {
+            return PixelFormat.TRANSLUCENT;
+        }
+        if (op1 == PixelFormat.TRANSPARENT || op2 == PixelFormat.TRANSPARENT) {
+            return PixelFormat.TRANSPARENT;
+        }
+        return PixelFormat.OPAQUE;
+    }
+}
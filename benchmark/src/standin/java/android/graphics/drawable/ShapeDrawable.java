@@ -0,0 +1,53 @@
+package android.graphics.drawable;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.shapes.Shape;
+
+public class ShapeDrawable extends Drawable {
+
+    private final Shape mShape;
+    private Paint mPaint = new Paint();
+
+    public ShapeDrawable(Shape shape) {
+        this.mShape = shape;
+    }
+
+    public Paint getPaint() {
+        return this.mPaint;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        this.mShape.draw(canvas, this.mPaint);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        this.mShape.resize(bounds.width(), bounds.height());
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        this.mPaint.setAlpha(alpha);
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        this.mPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public Drawable mutate() {
+        this.mPaint = new Paint(this.mPaint);
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package android.graphics.drawable.shapes;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+public class RectShape extends Shape {
+
+    private final RectF mRect = new RectF();
+
+    @Override
+    public void draw(Canvas canvas, Paint paint) {
+        canvas.drawRect(this.mRect, paint);
+    }
+}
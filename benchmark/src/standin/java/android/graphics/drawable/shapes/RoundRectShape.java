@@ -0,0 +1,9 @@
+package android.graphics.drawable.shapes;
+
+import android.graphics.RectF;
+
+public class RoundRectShape extends RectShape {
+
+    public RoundRectShape(float[] outerRadii, RectF inset, float[] innerRadii) {
+    }
+}
@@ -0,0 +1,25 @@
+package android.graphics.drawable.shapes;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+public abstract class Shape {
+
+    private float mWidth;
+    private float mHeight;
+
+    public abstract void draw(Canvas canvas, Paint paint);
+
+    public final void resize(float width, float height) {
+        this.mWidth = width;
+        this.mHeight = height;
+    }
+
+    public final float getWidth() {
+        return this.mWidth;
+    }
+
+    public final float getHeight() {
+        return this.mHeight;
+    }
+}
@@ -0,0 +1,18 @@
+package android.os;
+
+/**
+ * JVM stand-in: posts into the looper's queue, see {@link Looper#runNext(long)}.
+ */
+public class Handler {
+
+    private final Looper mLooper;
+
+    public Handler(Looper looper) {
+        this.mLooper = looper;
+    }
+
+    public final boolean post(Runnable r) {
+        this.mLooper.enqueue(r);
+        return true;
+    }
+}
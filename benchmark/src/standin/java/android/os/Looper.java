@@ -0,0 +1,55 @@
+package android.os;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM stand-in: there is no message loop, runnables posted through a {@link Handler} wait in a queue
+ * until a test runs them with {@link #runNext(long)} or {@link #runPending()}.
+ */
+public final class Looper {
+
+    private static final Looper sMainLooper = new Looper();
+
+    private final LinkedBlockingQueue<Runnable> mQueue = new LinkedBlockingQueue<Runnable>();
+
+    private Looper() {
+    }
+
+    public static Looper getMainLooper() {
+        return sMainLooper;
+    }
+
+    void enqueue(Runnable r) {
+        this.mQueue.add(r);
+    }
+
+    /**
+     * Stand-in only: waits for the next posted runnable and runs it on the calling thread.
+     *
+     * @return false if nothing was posted within the timeout
+     */
+    public boolean runNext(long timeoutMillis) throws InterruptedException {
+        Runnable r = this.mQueue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (r == null) {
+            return false;
+        }
+        r.run();
+        return true;
+    }
+
+    /**
+     * Stand-in only: runs everything posted so far on the calling thread.
+     *
+     * @return the number of runnables run
+     */
+    public int runPending() {
+        int count = 0;
+        Runnable r;
+        while ((r = this.mQueue.poll()) != null) {
+            r.run();
+            count++;
+        }
+        return count;
+    }
+}
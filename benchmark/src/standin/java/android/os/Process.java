@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * JVM stand-in: thread priorities are left to the JVM.
+ */
+public final class Process {
+
+    public static final int THREAD_PRIORITY_BACKGROUND = 10;
+
+    private Process() {
+    }
+
+    public static void setThreadPriority(int priority) {
+    }
+}
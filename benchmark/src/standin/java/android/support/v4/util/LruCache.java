@@ -0,0 +1,95 @@
+package android.support.v4.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in with the same semantics as the support library LruCache.
+ */
+public class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<K, V>(0, 0.75f, true);
+    private final int maxSize;
+    private int size;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    public LruCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public final synchronized V get(K key) {
+        V value = this.map.get(key);
+        if (value != null) {
+            this.hitCount++;
+        }
+        else {
+            this.missCount++;
+        }
+        return value;
+    }
+
+    public final synchronized V put(K key, V value) {
+        this.size += sizeOf(key, value);
+        V previous = this.map.put(key, value);
+        if (previous != null) {
+            this.size -= sizeOf(key, previous);
+            entryRemoved(false, key, previous, value);
+        }
+        trimToSize(this.maxSize);
+        return previous;
+    }
+
+    public final synchronized V remove(K key) {
+        V previous = this.map.remove(key);
+        if (previous != null) {
+            this.size -= sizeOf(key, previous);
+            entryRemoved(false, key, previous, null);
+        }
+        return previous;
+    }
+
+    public synchronized void trimToSize(int maxSize) {
+        Iterator<Map.Entry<K, V>> it = this.map.entrySet().iterator();
+        while (this.size > maxSize && it.hasNext()) {
+            Map.Entry<K, V> eldest = it.next();
+            it.remove();
+            this.size -= sizeOf(eldest.getKey(), eldest.getValue());
+            this.evictionCount++;
+            entryRemoved(true, eldest.getKey(), eldest.getValue(), null);
+        }
+    }
+
+    public final void evictAll() {
+        trimToSize(-1);
+    }
+
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+
+    protected void entryRemoved(boolean evicted, K key, V oldValue, V newValue) {
+    }
+
+    public final synchronized int size() {
+        return this.size;
+    }
+
+    public final synchronized int maxSize() {
+        return this.maxSize;
+    }
+
+    public final synchronized int hitCount() {
+        return this.hitCount;
+    }
+
+    public final synchronized int missCount() {
+        return this.missCount;
+    }
+
+    public final synchronized int evictionCount() {
+        return this.evictionCount;
+    }
+}
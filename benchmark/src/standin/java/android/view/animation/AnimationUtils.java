@@ -0,0 +1,20 @@
+package android.view.animation;
+
+/**
+ * JVM stand-in: the animation clock only moves when a test advances it, so everything drawn in between is one frame.
+ */
+public class AnimationUtils {
+
+    private static long sTime;
+
+    public static long currentAnimationTimeMillis() {
+        return sTime;
+    }
+
+    /**
+     * Stand-in only: starts the next frame.
+     */
+    public static void advanceFrame() {
+        sTime += 16;
+    }
+}
@@ -0,0 +1,113 @@
+package com.pzj.library;
+
+import android.content.ComponentCallbacks;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.animation.AnimationUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * AvatarMemoryController 单元测试：收缩真正的位图缓存及纹理图集，释放的字节数属实，恢复后可以重新填满
+ */
+public class AvatarMemoryControllerCacheTest {
+
+    private static final int SIZE   = 40;
+    private static final int BITMAP = SIZE * SIZE * 4;
+    private static final int PAGE   = 100;
+    private static final int CELL   = 50;  // 4 slots per page
+
+    private final Canvas mCanvas = new Canvas();
+
+    private int mNext;
+
+    /**
+     * 放入 count 个不同（背景色不同）的位图
+     */
+    private void fill(BitmapCache cache, int count) {
+        TextDrawable.IBuilder builder = TextDrawable.builder().rect();
+        for (int i = 0; i < count; i++) {
+            TextDrawableSpec spec = builder.spec("B", Color.WHITE, 0xff000000 | this.mNext++);
+            cache.put(new BitmapCache.Key(spec, SIZE, SIZE), TextDrawable.render(spec, SIZE, SIZE));
+        }
+    }
+
+    /**
+     * 在新的帧中绘制 count 个不同的图像，每个占用图集的一个槽位
+     */
+    private List<TextDrawable> fill(TextureAtlas atlas, int count) {
+        TextDrawable.IBuilder builder = TextDrawable.builder().beginConfig().useAtlas(atlas).endConfig().rect();
+        List<TextDrawable> drawables = new ArrayList<TextDrawable>();
+        for (int i = 0; i < count; i++) {
+            TextDrawable drawable = builder.build("A", Color.WHITE, 0xff000000 | this.mNext++);
+            drawable.setBounds(0, 0, CELL, CELL);
+            AnimationUtils.advanceFrame();
+            drawable.draw(this.mCanvas);
+            drawables.add(drawable);
+        }
+        return drawables;
+    }
+
+    @Test
+    public void trimReclaimsRealBytesAndRestoreGrowsBack() throws Exception {
+        BitmapCache cache = BitmapCache.create(10 * BITMAP);
+        TextureAtlas atlas = TextureAtlas.create(PAGE, 4);
+        fill(cache, 10);
+        List<TextDrawable> drawables = fill(atlas, 16);
+        assertEquals(10 * BITMAP, cache.size());
+        assertEquals(4, atlas.pageCount());
+        long before = cache.size() + atlas.size();
+
+        AvatarMemoryController controller = AvatarMemoryController.create();
+        controller.register(cache);
+        controller.register(atlas);
+
+        long reclaimed = controller.trim(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+        assertEquals(5 * BITMAP, cache.size());
+        assertEquals(2, atlas.pageCount());
+        assertEquals(before - cache.size() - atlas.size(), reclaimed);
+        assertEquals(reclaimed, controller.getLastReclaimedBytes());
+
+        // the caps hold while trimmed
+        fill(cache, 10);
+        fill(atlas, 16);
+        assertEquals(5 * BITMAP, cache.size());
+        assertEquals(2, atlas.pageCount());
+
+        // restored caps can be filled up again
+        controller.restore();
+        fill(cache, 10);
+        fill(atlas, 16);
+        assertEquals(10 * BITMAP, cache.size());
+        assertEquals(4, atlas.pageCount());
+        assertEquals(16, drawables.size());
+    }
+
+    @Test
+    public void defaultController_isInstalledOncePerProcess() throws Exception {
+        final List<ComponentCallbacks> registered = new ArrayList<ComponentCallbacks>();
+        Context context = new Context() {
+            @Override
+            public Context getApplicationContext() {
+                return this;
+            }
+
+            @Override
+            public void registerComponentCallbacks(ComponentCallbacks callback) {
+                registered.add(callback);
+            }
+        };
+
+        AvatarMemoryController first = AvatarMemoryController.install(context);
+        AvatarMemoryController second = AvatarMemoryController.install(context);
+        assertSame(AvatarMemoryController.getDefault(), first);
+        assertSame(first, second);
+        assertEquals(1, registered.size());
+        assertNotSame(first, AvatarMemoryController.create());
+    }
+}
@@ -0,0 +1,160 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * BitmapCache 单元测试：绘制时不访问磁盘，磁盘键区分边框颜色，预取探测不计入命中统计
+ */
+public class BitmapCacheTest {
+
+    private static final int  SIZE       = 40;
+    private static final long TIMEOUT_MS = 5000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private DiskAvatarCache mDisk;
+    private BitmapCache     mCache;
+    private Canvas          mCanvas;
+    private AtomicInteger   mInvalidations;
+
+    @Before
+    public void setUp() throws Exception {
+        this.mDisk = DiskAvatarCache.open(this.mFolder.newFolder("avatars"), 1 << 20, 64);
+        this.mCache = BitmapCache.create(1 << 20, this.mDisk);
+        this.mCanvas = new Canvas();
+        this.mInvalidations = new AtomicInteger();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TextDrawableMetrics.register(null);
+        Looper.getMainLooper().runPending();
+        this.mDisk.close();
+    }
+
+    private TextDrawable drawable(String text) {
+        TextDrawable drawable = TextDrawable.builder().beginConfig().useCache(this.mCache).endConfig().buildRect(text, Color.WHITE, 0xff3f51b5);
+        drawable.setBounds(0, 0, SIZE, SIZE);
+        drawable.setCallback(new Drawable.Callback() {
+            @Override
+            public void invalidateDrawable(Drawable who) {
+                mInvalidations.incrementAndGet();
+            }
+
+            @Override
+            public void scheduleDrawable(Drawable who, Runnable what, long when) {
+            }
+
+            @Override
+            public void unscheduleDrawable(Drawable who, Runnable what) {
+            }
+        });
+        return drawable;
+    }
+
+    private int drawOps(TextDrawable drawable) {
+        this.mCanvas.ops = 0;
+        drawable.draw(this.mCanvas);
+        return this.mCanvas.ops;
+    }
+
+    @Test
+    public void memoryMiss_drawsShapeAndLoadsDiskInBackground() throws Exception {
+        TextDrawable drawable = drawable("D");
+        ByteBuffer pixels = ByteBuffer.allocate(8 + SIZE * SIZE * 4);
+        pixels.putInt(SIZE).putInt(SIZE);
+        this.mDisk.put(new BitmapCache.Key(drawable.getSpec(), SIZE, SIZE).stableKey(), pixels.array());
+
+        // this frame draws the shape directly, a single drawBitmap would mean the disk was read during draw
+        assertTrue(drawOps(drawable) > 1);
+
+        assertTrue(Looper.getMainLooper().runNext(TIMEOUT_MS));
+        assertEquals(1, this.mInvalidations.get());
+        assertEquals(1, this.mDisk.hitCount());
+        assertEquals(1, drawOps(drawable));
+    }
+
+    @Test
+    public void diskMiss_rastersInBackground() throws Exception {
+        TextDrawable drawable = drawable("M");
+        assertTrue(drawOps(drawable) > 1);
+
+        assertTrue(Looper.getMainLooper().runNext(TIMEOUT_MS));
+        assertEquals(1, this.mInvalidations.get());
+        assertEquals(1, drawOps(drawable));
+        assertTrue(this.mCache.size() > 0);
+    }
+
+    @Test
+    public void pendingLoad_isSharedByDrawablesOfTheSameKey() throws Exception {
+        TextDrawable first = drawable("S");
+        TextDrawable second = drawable("S");
+
+        // hold the background render until both drawables are waiting, otherwise the bitmap may already be in memory
+        final CountDownLatch release = new CountDownLatch(1);
+        TextDrawableMetrics.register(new TextDrawableMetrics() {
+            @Override
+            public void onDrawableCreated() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        drawOps(first);
+        drawOps(second);
+        release.countDown();
+
+        // one load, both drawables invalidated when it arrives
+        assertTrue(Looper.getMainLooper().runNext(TIMEOUT_MS));
+        assertFalse(Looper.getMainLooper().runNext(50));
+        assertEquals(2, this.mInvalidations.get());
+
+        // waiters are weakly held: using both drawables here also keeps them reachable until the load arrives
+        assertEquals(1, drawOps(first));
+        assertEquals(1, drawOps(second));
+    }
+
+    @Test
+    public void stableKey_includesBorderColor() throws Exception {
+        TextDrawableSpec red = new TextDrawableSpec("B", Color.WHITE, 0xff3f51b5, 0xffff0000, 4, -1, -1, -1, false, false, null, TextDrawableSpec.SHAPE_ROUND, 0, this.mCache, null);
+        TextDrawableSpec blue = new TextDrawableSpec("B", Color.WHITE, 0xff3f51b5, 0xff0000ff, 4, -1, -1, -1, false, false, null, TextDrawableSpec.SHAPE_ROUND, 0, this.mCache, null);
+        TextDrawableSpec sameAsRed = new TextDrawableSpec("B", Color.WHITE, 0xff3f51b5, 0xffff0000, 4, -1, -1, -1, false, false, null, TextDrawableSpec.SHAPE_ROUND, 0, this.mCache, null);
+
+        long redKey = new BitmapCache.Key(red, SIZE, SIZE).stableKey();
+        assertNotEquals(redKey, new BitmapCache.Key(blue, SIZE, SIZE).stableKey());
+        assertEquals(redKey, new BitmapCache.Key(sameAsRed, SIZE, SIZE).stableKey());
+    }
+
+    @Test
+    public void contains_doesNotCountHitsOrMisses() throws Exception {
+        BitmapCache cache = BitmapCache.create(1 << 20);
+        TextDrawable drawable = drawable("P");
+        BitmapCache.Key key = new BitmapCache.Key(drawable.getSpec(), SIZE, SIZE);
+
+        assertFalse(cache.contains(key));
+        cache.put(key, TextDrawable.render(drawable.getSpec(), SIZE, SIZE));
+        assertTrue(cache.contains(key));
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.missCount());
+
+        cache.evictAll();
+        assertFalse(cache.contains(key));
+    }
+}
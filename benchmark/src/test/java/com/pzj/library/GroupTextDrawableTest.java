@@ -0,0 +1,184 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * GroupTextDrawable 单元测试：2/3/4格 × 圆形/圆角矩形/矩形 × 有无边框的绘制，以及透明度、颜色过滤
+ */
+public class GroupTextDrawableTest {
+
+    private static final int SIZE      = 100;
+    private static final int BORDER    = 4;
+    private static final int TEXT      = 0xffffffff;
+    private static final int[] BG      = { 0xff9c27b0, 0xff3f51b5, 0xff009688, 0x80ff5722 };
+    private static final String[] NAMES = { "Alice", "Bob", "Carol", "Dave" };
+
+    private static final int ROUND      = 0;
+    private static final int ROUND_RECT = 1;
+    private static final int RECT       = 2;
+
+    private static GroupTextDrawable group(int count, int shape, int border) {
+        TextDrawable.IConfigBuilder config = TextDrawable.builder().beginConfig();
+        if (border > 0) {
+            config.withBorder(border);
+        }
+        TextDrawable.IShapeBuilder shapes = config.endConfig();
+        TextDrawable.IBuilder builder = shape == ROUND ? shapes.round() : shape == ROUND_RECT ? shapes.roundRect(10) : shapes.rect();
+        TextDrawableSpec[] specs = new TextDrawableSpec[count];
+        for (int i = 0; i < count; i++) {
+            specs[i] = builder.spec(NAMES[i], TEXT, BG[i]);
+        }
+        GroupTextDrawable drawable = GroupTextDrawable.create(specs);
+        drawable.setBounds(0, 0, SIZE, SIZE);
+        return drawable;
+    }
+
+    private static List<Canvas.Op> draw(GroupTextDrawable drawable) {
+        Canvas canvas = new Canvas();
+        canvas.recorded = new ArrayList<Canvas.Op>();
+        drawable.draw(canvas);
+        return canvas.recorded;
+    }
+
+    private static List<Canvas.Op> named(List<Canvas.Op> ops, String name) {
+        List<Canvas.Op> result = new ArrayList<Canvas.Op>();
+        for (Canvas.Op op : ops) {
+            if (op.name.equals(name)) {
+                result.add(op);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void drawsEverySegmentShapeAndBorder() throws Exception {
+        String[] bgOps = { "drawArc", "drawPath", "drawRect" };
+        String[] outlineOps = { "drawOval", "drawRoundRect", "drawRect" };
+        for (int count = GroupTextDrawable.MIN_SEGMENTS; count <= GroupTextDrawable.MAX_SEGMENTS; count++) {
+            for (int shape = ROUND; shape <= RECT; shape++) {
+                for (int border = 0; border <= BORDER; border += BORDER) {
+                    String label = count + " segments, shape " + shape + ", border " + border;
+                    List<Canvas.Op> ops = draw(group(count, shape, border));
+
+                    // backgrounds first, one per segment in its own color
+                    for (int i = 0; i < count; i++) {
+                        assertEquals(label, bgOps[shape], ops.get(i).name);
+                        assertEquals(label, BG[i], ops.get(i).color);
+                    }
+
+                    // then the outline and the dividers
+                    int dividers = count == 2 ? 1 : 2;
+                    List<Canvas.Op> lines = named(ops, "drawLine");
+                    if (border > 0) {
+                        assertEquals(label, outlineOps[shape], ops.get(count).name);
+                        assertEquals(label, dividers, lines.size());
+                    }
+                    else {
+                        assertTrue(label, lines.isEmpty());
+                    }
+
+                    // texts last, one per segment
+                    List<Canvas.Op> texts = named(ops, "drawText");
+                    assertEquals(label, count, texts.size());
+                    assertSame(label, texts.get(count - 1), ops.get(ops.size() - 1));
+                    int expected = count + (border > 0 ? 1 + dividers : 0) + count;
+                    assertEquals(label, expected, ops.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundSegmentsCoverTheCircle() throws Exception {
+        float[][] expected = {
+                { 90, 180, 270, 180 },
+                { 90, 180, 270, 90, 0, 90 },
+                { 180, 90, 270, 90, 90, 90, 0, 90 }
+        };
+        for (int count = 2; count <= 4; count++) {
+            List<Canvas.Op> arcs = named(draw(group(count, ROUND, 0)), "drawArc");
+            float sweep = 0;
+            for (int i = 0; i < count; i++) {
+                assertEquals(expected[count - 2][i * 2], arcs.get(i).args[0], 0f);
+                assertEquals(expected[count - 2][i * 2 + 1], arcs.get(i).args[1], 0f);
+                sweep += arcs.get(i).args[1];
+            }
+            assertEquals(360, sweep, 0f);
+        }
+    }
+
+    @Test
+    public void alphaModulatesBackgroundsBorderAndTexts() throws Exception {
+        GroupTextDrawable drawable = group(4, RECT, BORDER);
+        drawable.setAlpha(0x80);
+        assertEquals(0x80, drawable.getAlpha());
+
+        List<Canvas.Op> ops = draw(drawable);
+        for (int i = 0; i < 4; i++) {
+            // multiplied into the segment's own alpha, not overwritten
+            assertEquals((BG[i] >>> 24) * 0x80 / 0xff, ops.get(i).alpha());
+            assertEquals(BG[i] & 0x00ffffff, ops.get(i).color & 0x00ffffff);
+        }
+        for (Canvas.Op op : ops.subList(4, ops.size())) {
+            assertEquals(op.toString(), 0x80, op.alpha());
+        }
+
+        // back to opaque, the segment colors are intact
+        drawable.setAlpha(0xff);
+        ops = draw(drawable);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(BG[i], ops.get(i).color);
+        }
+        for (Canvas.Op op : ops.subList(4, ops.size())) {
+            assertEquals(op.toString(), 0xff, op.alpha());
+        }
+    }
+
+    @Test
+    public void colorFilterAppliesToEveryOperation() throws Exception {
+        GroupTextDrawable drawable = group(3, ROUND_RECT, BORDER);
+        ColorFilter filter = new ColorFilter();
+        drawable.setColorFilter(filter);
+        assertSame(filter, drawable.getColorFilter());
+        for (Canvas.Op op : draw(drawable)) {
+            assertSame(op.toString(), filter, op.colorFilter);
+        }
+
+        drawable.setColorFilter(null);
+        for (Canvas.Op op : draw(drawable)) {
+            assertNull(op.toString(), op.colorFilter);
+        }
+    }
+
+    @Test
+    public void leavesPooledPaintsAlone() throws Exception {
+        GroupTextDrawable drawable = group(2, ROUND, BORDER);
+        drawable.setAlpha(0x40);
+        drawable.setColorFilter(new ColorFilter());
+        draw(drawable);
+
+        Paint border = PaintPool.borderPaint(ColorGenerator.darkerShade(BG[0]), BORDER);
+        assertEquals(0xff, border.getAlpha());
+        assertNull(border.getColorFilter());
+    }
+
+    @Test
+    public void opacityFollowsAlpha() throws Exception {
+        GroupTextDrawable drawable = group(3, RECT, 0);
+        assertEquals(PixelFormat.OPAQUE, drawable.getOpacity());
+        drawable.setAlpha(0x80);
+        assertEquals(PixelFormat.TRANSLUCENT, drawable.getOpacity());
+        drawable.setAlpha(0);
+        assertEquals(PixelFormat.TRANSPARENT, drawable.getOpacity());
+
+        assertEquals(PixelFormat.TRANSLUCENT, group(2, ROUND, 0).getOpacity());
+    }
+}
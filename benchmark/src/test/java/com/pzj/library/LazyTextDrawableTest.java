@@ -0,0 +1,144 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.drawable.Drawable;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * LazyTextDrawable 单元测试：第一次绘制时创建并带上之前设置的状态，只在内存紧张时释放
+ */
+public class LazyTextDrawableTest {
+
+    private final Canvas mCanvas = new Canvas();
+
+    @After
+    public void tearDown() throws Exception {
+        LazyTextDrawable.trimToFraction(0f);
+    }
+
+    private static LazyTextDrawable lazy(String text) {
+        return LazyTextDrawable.create(TextDrawable.builder().round().spec(text, Color.WHITE, 0xff9c27b0));
+    }
+
+    @Test
+    public void materializesOnFirstDraw() throws Exception {
+        LazyTextDrawable drawable = lazy("L");
+        drawable.setBounds(0, 0, 64, 64);
+        drawable.getOpacity();
+        drawable.getIntrinsicWidth();
+        assertFalse(drawable.isMaterialized());
+
+        drawable.draw(this.mCanvas);
+        assertTrue(drawable.isMaterialized());
+        assertTrue(this.mCanvas.ops > 0);
+
+        // later draws reuse the same delegate
+        TextDrawable delegate = drawable.delegate();
+        drawable.draw(this.mCanvas);
+        assertSame(delegate, drawable.delegate());
+    }
+
+    @Test
+    public void carriesOverBoundsAlphaAndFilter() throws Exception {
+        LazyTextDrawable drawable = lazy("C");
+        ColorFilter filter = new ColorFilter();
+        drawable.setBounds(10, 20, 74, 84);
+        drawable.setAlpha(0x80);
+        drawable.setColorFilter(filter);
+
+        drawable.draw(this.mCanvas);
+        TextDrawable delegate = drawable.delegate();
+        assertEquals(10, delegate.getBounds().left);
+        assertEquals(20, delegate.getBounds().top);
+        assertEquals(74, delegate.getBounds().right);
+        assertEquals(84, delegate.getBounds().bottom);
+        assertEquals(0x80, delegate.getAlpha());
+        assertSame(filter, delegate.getColorFilter());
+
+        // changes after materializing go straight to the delegate
+        drawable.setBounds(0, 0, 32, 32);
+        drawable.setAlpha(0xff);
+        drawable.setColorFilter(null);
+        assertEquals(32, delegate.getBounds().width());
+        assertEquals(0xff, delegate.getAlpha());
+        assertNull(delegate.getColorFilter());
+    }
+
+    @Test
+    public void hidingKeepsTheDelegate() throws Exception {
+        LazyTextDrawable drawable = lazy("H");
+        drawable.setBounds(0, 0, 64, 64);
+        drawable.draw(this.mCanvas);
+
+        drawable.setVisible(false, false);
+        drawable.setVisible(true, false);
+        assertTrue(drawable.isMaterialized());
+    }
+
+    @Test
+    public void trim_releasesHiddenFirstThenAll() throws Exception {
+        LazyTextDrawable visible = lazy("V");
+        LazyTextDrawable hidden = lazy("X");
+        for (LazyTextDrawable drawable : new LazyTextDrawable[] { visible, hidden }) {
+            drawable.setBounds(0, 0, 64, 64);
+            drawable.draw(this.mCanvas);
+        }
+        hidden.setVisible(false, false);
+        assertEquals(2, LazyTextDrawable.materializedCount());
+
+        LazyTextDrawable.trimToFraction(1f);
+        assertTrue(hidden.isMaterialized());
+
+        LazyTextDrawable.trimToFraction(0.5f);
+        assertTrue(visible.isMaterialized());
+        assertFalse(hidden.isMaterialized());
+        assertEquals(1, LazyTextDrawable.materializedCount());
+
+        LazyTextDrawable.trimToFraction(0f);
+        assertFalse(visible.isMaterialized());
+        assertEquals(0, LazyTextDrawable.materializedCount());
+
+        // released drawables come back on the next draw
+        visible.draw(this.mCanvas);
+        assertTrue(visible.isMaterialized());
+        assertEquals(64, visible.delegate().getBounds().width());
+    }
+
+    @Test
+    public void delegateInvalidationsReachTheHost() throws Exception {
+        final int[] invalidations = new int[1];
+        LazyTextDrawable drawable = lazy("I");
+        drawable.setBounds(0, 0, 64, 64);
+        drawable.setCallback(new Drawable.Callback() {
+            @Override
+            public void invalidateDrawable(Drawable who) {
+                invalidations[0]++;
+            }
+
+            @Override
+            public void scheduleDrawable(Drawable who, Runnable what, long when) {
+            }
+
+            @Override
+            public void unscheduleDrawable(Drawable who, Runnable what) {
+            }
+        });
+        drawable.draw(this.mCanvas);
+
+        // e.g. an atlas region evicted or a cached bitmap arriving
+        TextDrawable delegate = drawable.delegate();
+        delegate.invalidateSelf();
+        assertEquals(1, invalidations[0]);
+
+        // a released delegate no longer reaches the host
+        drawable.release();
+        assertNull(delegate.getCallback());
+        delegate.invalidateSelf();
+        assertEquals(1, invalidations[0]);
+    }
+}
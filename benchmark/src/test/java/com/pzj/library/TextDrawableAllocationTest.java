@@ -0,0 +1,84 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import java.lang.management.ManagementFactory;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TextDrawable 绘制路径零分配测试
+ *
+ * 预热后重复调用 draw()，用 HotSpot 的线程分配计数确认绘制过程不分配任何对象。
+ */
+public class TextDrawableAllocationTest {
+
+    private static final int SIZE    = 120;
+    private static final int WARM_UP = 20000;
+    private static final int DRAWS   = 10000;
+
+    private com.sun.management.ThreadMXBean mThreads;
+    private long                            mThreadId;
+    private Canvas                          mCanvas;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        this.mThreads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(this.mThreads.isThreadAllocatedMemorySupported());
+        this.mThreads.setThreadAllocatedMemoryEnabled(true);
+        this.mThreadId = Thread.currentThread().getId();
+        this.mCanvas = new Canvas();
+    }
+
+    @Test
+    public void draw_rect_allocatesNothing() throws Exception {
+        TextDrawable drawable = TextDrawable.builder().buildRect("A", Color.WHITE, 0xffe57373);
+        assertEquals(0, allocatedBytes(drawable));
+    }
+
+    @Test
+    public void draw_roundWithBorder_allocatesNothing() throws Exception {
+        TextDrawable drawable = TextDrawable.builder().beginConfig().withBorder(4).endConfig().buildRound("AB", Color.WHITE, 0xff64b5f6);
+        assertEquals(0, allocatedBytes(drawable));
+    }
+
+    @Test
+    public void draw_roundRectAutoFit_allocatesNothing() throws Exception {
+        TextDrawable drawable = TextDrawable.builder().beginConfig().withBorder(4).autoFit().endConfig().buildRoundRect("ABC", Color.WHITE, 0xff81c784, 10);
+        assertEquals(0, allocatedBytes(drawable));
+    }
+
+    @Test
+    public void draw_afterSetAlpha_allocatesNothing() throws Exception {
+        TextDrawable drawable = TextDrawable.builder().buildRound("A", Color.WHITE, 0xffe57373);
+        drawable.setAlpha(0x80);
+        assertEquals(0, allocatedBytes(drawable));
+    }
+
+    /**
+     * 预热后重复绘制，返回绘制期间分配的字节数（已扣除测量本身的开销）
+     */
+    private long allocatedBytes(TextDrawable drawable) {
+        drawable.setBounds(0, 0, SIZE, SIZE);
+        Canvas canvas = this.mCanvas;
+        for (int i = 0; i < WARM_UP; i++) {
+            drawable.draw(canvas);
+        }
+
+        long overhead = measure(null, 0);
+        return Math.max(0, measure(drawable, DRAWS) - overhead);
+    }
+
+    private long measure(TextDrawable drawable, int draws) {
+        Canvas canvas = this.mCanvas;
+        long before = this.mThreads.getThreadAllocatedBytes(this.mThreadId);
+        for (int i = 0; i < draws; i++) {
+            drawable.draw(canvas);
+        }
+        return this.mThreads.getThreadAllocatedBytes(this.mThreadId) - before;
+    }
+}
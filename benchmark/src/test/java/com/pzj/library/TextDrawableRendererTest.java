@@ -0,0 +1,224 @@
+package com.pzj.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TextDrawableRenderer 单元测试：结果顺序、取消批次、分片及单个描述渲染失败
+ */
+public class TextDrawableRendererTest {
+
+    private static final int  SIZE       = 48;
+    private static final long TIMEOUT_MS = 5000;
+
+    private TextDrawableRenderer mRenderer;
+
+    @After
+    public void tearDown() throws Exception {
+        TextDrawableMetrics.register(null);
+        if (this.mRenderer != null) {
+            this.mRenderer.shutdown();
+        }
+        Looper.getMainLooper().runPending();
+    }
+
+    private static List<TextDrawableSpec> specs(int count, BitmapCache cache) {
+        TextDrawable.IConfigBuilder config = TextDrawable.builder().beginConfig();
+        if (cache != null) {
+            config.useCache(cache);
+        }
+        TextDrawable.IBuilder builder = config.endConfig().round();
+        List<TextDrawableSpec> specs = new ArrayList<TextDrawableSpec>();
+        for (int i = 0; i < count; i++) {
+            specs.add(builder.spec(String.valueOf((char) ('A' + i)), Color.WHITE, 0xff000000 | (i * 0x101010)));
+        }
+        return specs;
+    }
+
+    private static List<Bitmap> awaitDelivery(final List<List<Bitmap>> delivered) throws InterruptedException {
+        assertTrue("nothing posted to the main thread", Looper.getMainLooper().runNext(TIMEOUT_MS));
+        assertEquals(1, delivered.size());
+        return delivered.get(0);
+    }
+
+    @Test
+    public void render_resultsFollowSpecOrder() throws Exception {
+        this.mRenderer = TextDrawableRenderer.create(3);
+        BitmapCache cache = BitmapCache.create(1 << 20);
+        List<TextDrawableSpec> specs = specs(10, cache);
+
+        final List<List<Bitmap>> delivered = new ArrayList<List<Bitmap>>();
+        this.mRenderer.render(specs, SIZE, SIZE, new TextDrawableRenderer.Callback() {
+            @Override
+            public void onRendered(List<Bitmap> bitmaps) {
+                delivered.add(bitmaps);
+            }
+        });
+
+        List<Bitmap> bitmaps = awaitDelivery(delivered);
+        assertEquals(specs.size(), bitmaps.size());
+        for (int i = 0; i < specs.size(); i++) {
+            // every result is the bitmap cached for the spec at the same index
+            assertSame(cache.get(new BitmapCache.Key(specs.get(i), SIZE, SIZE)), bitmaps.get(i));
+        }
+    }
+
+    @Test
+    public void renderOne_buildsOwnPaints() throws Exception {
+        TextDrawableSpec spec = TextDrawable.builder().beginConfig().withBorder(4).endConfig().round().spec("P", Color.WHITE, 0xff3f51b5);
+        int lookups = PaintPool.hitCount() + PaintPool.missCount();
+
+        // the pooled paints belong to the main thread, the background path never reads them
+        assertNotNull(TextDrawableRenderer.renderOne(spec, SIZE, SIZE));
+        assertEquals(lookups, PaintPool.hitCount() + PaintPool.missCount());
+    }
+
+    @Test
+    public void render_emptyBatch_deliversEmptyList() throws Exception {
+        this.mRenderer = TextDrawableRenderer.create(2);
+        final List<List<Bitmap>> delivered = new ArrayList<List<Bitmap>>();
+        this.mRenderer.render(Collections.<TextDrawableSpec>emptyList(), SIZE, SIZE, new TextDrawableRenderer.Callback() {
+            @Override
+            public void onRendered(List<Bitmap> bitmaps) {
+                delivered.add(bitmaps);
+            }
+        });
+        assertTrue(awaitDelivery(delivered).isEmpty());
+    }
+
+    @Test
+    public void cancel_stopsChunkAndSkipsCallback() throws Exception {
+        this.mRenderer = TextDrawableRenderer.create(1);
+
+        // hold the worker inside the first spec until the batch is cancelled
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger created = new AtomicInteger();
+        TextDrawableMetrics.register(new TextDrawableMetrics() {
+            @Override
+            public void onDrawableCreated() {
+                if (created.incrementAndGet() == 1) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+
+        final List<List<Bitmap>> delivered = new ArrayList<List<Bitmap>>();
+        TextDrawableRenderer.Batch batch = this.mRenderer.render(specs(20, null), SIZE, SIZE, new TextDrawableRenderer.Callback() {
+            @Override
+            public void onRendered(List<Bitmap> bitmaps) {
+                delivered.add(bitmaps);
+            }
+        });
+        assertTrue(started.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        batch.cancel();
+        release.countDown();
+
+        // the finished chunk still posts, but the cancelled batch does not call back
+        assertTrue(Looper.getMainLooper().runNext(TIMEOUT_MS));
+        assertTrue(batch.isCancelled());
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void failingSpec_failsOnlyItsSlot() throws Exception {
+        this.mRenderer = TextDrawableRenderer.create(1);
+
+        // the second spec of the only chunk throws
+        final AtomicInteger created = new AtomicInteger();
+        final IllegalStateException failure = new IllegalStateException("bad spec");
+        TextDrawableMetrics.register(new TextDrawableMetrics() {
+            @Override
+            public void onDrawableCreated() {
+                if (created.incrementAndGet() == 2) {
+                    throw failure;
+                }
+            }
+        });
+
+        final List<List<Bitmap>> delivered = new ArrayList<List<Bitmap>>();
+        TextDrawableRenderer.Batch batch = this.mRenderer.render(specs(4, null), SIZE, SIZE, new TextDrawableRenderer.Callback() {
+            @Override
+            public void onRendered(List<Bitmap> bitmaps) {
+                delivered.add(bitmaps);
+            }
+        });
+
+        // the batch still calls back, the rest of the chunk is rendered
+        List<Bitmap> bitmaps = awaitDelivery(delivered);
+        assertEquals(4, bitmaps.size());
+        assertNull(bitmaps.get(1));
+        assertSame(failure, batch.getError(1));
+        for (int i : new int[] { 0, 2, 3 }) {
+            assertNotNull(bitmaps.get(i));
+            assertNull(batch.getError(i));
+        }
+    }
+
+    @Test
+    public void chunkSize_splitsEvenly() throws Exception {
+        assertEquals(4, TextDrawableRenderer.chunkSize(10, 3));
+        assertEquals(5, TextDrawableRenderer.chunkSize(10, 2));
+        assertEquals(1, TextDrawableRenderer.chunkSize(3, 8));
+        assertEquals(10, TextDrawableRenderer.chunkSize(10, 1));
+    }
+
+    @Test
+    public void render_eachChunkRunsOnOneThread() throws Exception {
+        this.mRenderer = TextDrawableRenderer.create(3);
+
+        final Map<String, Integer> perThread = new HashMap<String, Integer>();
+        TextDrawableMetrics.register(new TextDrawableMetrics() {
+            @Override
+            public void onDrawableCreated() {
+                synchronized (perThread) {
+                    String name = Thread.currentThread().getName();
+                    Integer count = perThread.get(name);
+                    perThread.put(name, count == null ? 1 : count + 1);
+                }
+            }
+        });
+
+        final List<List<Bitmap>> delivered = new ArrayList<List<Bitmap>>();
+        this.mRenderer.render(specs(10, null), SIZE, SIZE, new TextDrawableRenderer.Callback() {
+            @Override
+            public void onRendered(List<Bitmap> bitmaps) {
+                delivered.add(bitmaps);
+            }
+        });
+        List<Bitmap> bitmaps = awaitDelivery(delivered);
+        assertEquals(10, bitmaps.size());
+        assertFalse(bitmaps.contains(null));
+
+        // 10 specs on 3 threads: chunks of 4, 4 and 2
+        List<Integer> counts;
+        synchronized (perThread) {
+            counts = new ArrayList<Integer>(perThread.values());
+        }
+        Collections.sort(counts);
+        assertEquals(3, counts.size());
+        assertEquals(Integer.valueOf(2), counts.get(0));
+        assertEquals(Integer.valueOf(4), counts.get(1));
+        assertEquals(Integer.valueOf(4), counts.get(2));
+    }
+}
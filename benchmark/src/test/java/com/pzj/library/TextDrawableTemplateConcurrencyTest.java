@@ -0,0 +1,120 @@
+package com.pzj.library;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TextDrawableTemplate 多线程单元测试：多个线程用同一个模板 build()，画笔池、共享状态及图像的颜色都不串
+ */
+public class TextDrawableTemplateConcurrencyTest {
+
+    private static final int THREADS    = 8;
+    private static final int ITERATIONS = 2000;
+    private static final int COLORS     = 16;
+
+    private static final TextDrawableTemplate TEMPLATE = TextDrawable.builder().beginConfig().withBorder(4).toUpperCase().endConfig().round().toTemplate();
+
+    /**
+     * 每个线程 build 自己的首字母及文本颜色，背景色（及由它得到的边框色）在线程间重复，画笔池同时命中与未命中
+     */
+    private interface Builds {
+
+        TextDrawable build(String text, int textColor, int bgColor);
+    }
+
+    private static void stress(final Builds builds) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicReference<String> firstFailure = new AtomicReference<String>();
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        String text = String.valueOf((char) ('a' + id));
+                        int textColor = 0xff000000 | (id * 0x111111);
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            int bgColor = 0xff000000 | ((i % COLORS) * 0x0f0f0f);
+                            String failure = check(builds.build(text, textColor, bgColor), text.toUpperCase(), textColor, bgColor);
+                            if (failure != null) {
+                                failures.incrementAndGet();
+                                firstFailure.compareAndSet(null, failure);
+                            }
+                        }
+                    }
+                    catch (Throwable e) {
+                        failures.incrementAndGet();
+                        firstFailure.compareAndSet(null, e.toString());
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(firstFailure.get(), 0, failures.get());
+    }
+
+    private static String check(TextDrawable drawable, String text, int textColor, int bgColor) {
+        TextDrawableSpec spec = drawable.getSpec();
+        TextDrawable.TextState state = (TextDrawable.TextState) drawable.getConstantState();
+        if (!text.equals(spec.getText()) || spec.getTextColor() != textColor || spec.getBgColor() != bgColor) {
+            return "spec " + spec.getText() + " for " + text;
+        }
+        if (state.spec != spec) {
+            return "state of another spec";
+        }
+        if (state.textPaint.getColor() != textColor) {
+            return "text paint #" + Integer.toHexString(state.textPaint.getColor()) + " for #" + Integer.toHexString(textColor);
+        }
+        if (state.borderPaint.getColor() != spec.getBorderColor()) {
+            return "border paint #" + Integer.toHexString(state.borderPaint.getColor()) + " for #" + Integer.toHexString(spec.getBorderColor());
+        }
+        if (drawable.getPaint().getColor() != bgColor) {
+            return "background #" + Integer.toHexString(drawable.getPaint().getColor()) + " for #" + Integer.toHexString(bgColor);
+        }
+        return null;
+    }
+
+    @Test
+    public void build_sharedTemplate_neverMixesPaintsOrStates() throws Exception {
+        stress(new Builds() {
+            @Override
+            public TextDrawable build(String text, int textColor, int bgColor) {
+                return TEMPLATE.build(text, textColor, bgColor);
+            }
+        });
+    }
+
+    @Test
+    public void build_throughSharedFactory_internsOneStatePerSpec() throws Exception {
+        final TextDrawableFactory factory = TextDrawableFactory.create(THREADS * COLORS);
+        final Map<TextDrawableSpec, TextDrawable.TextState> states = new ConcurrentHashMap<TextDrawableSpec, TextDrawable.TextState>();
+        final AtomicInteger foreign = new AtomicInteger();
+        stress(new Builds() {
+            @Override
+            public TextDrawable build(String text, int textColor, int bgColor) {
+                TextDrawable drawable = factory.obtain(TEMPLATE.spec(text, textColor, bgColor));
+                TextDrawable.TextState state = (TextDrawable.TextState) drawable.getConstantState();
+                TextDrawable.TextState previous = states.putIfAbsent(drawable.getSpec(), state);
+                if (previous != null && previous != state) {
+                    foreign.incrementAndGet();
+                }
+                return drawable;
+            }
+        });
+        assertEquals(0, foreign.get());
+        assertEquals(THREADS * COLORS, factory.size());
+    }
+}
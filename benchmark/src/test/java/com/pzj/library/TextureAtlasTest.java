@@ -0,0 +1,212 @@
+package com.pzj.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.view.animation.AnimationUtils;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TextureAtlas 单元测试：填满图集后淘汰的区域要让使用它的图像重新绘制，仍被使用的页不回收，当前帧使用的区域不淘汰
+ */
+public class TextureAtlasTest {
+
+    private static final int PAGE = 100;
+    private static final int CELL = 50;  // 4 slots per page
+
+    private final Map<Drawable, Integer> mInvalidations = new HashMap<Drawable, Integer>();
+    private final Canvas                 mCanvas        = new Canvas();
+
+    private final Drawable.Callback mCallback = new Drawable.Callback() {
+        @Override
+        public void invalidateDrawable(Drawable who) {
+            Integer count = mInvalidations.get(who);
+            mInvalidations.put(who, count == null ? 1 : count + 1);
+        }
+
+        @Override
+        public void scheduleDrawable(Drawable who, Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(Drawable who, Runnable what) {
+        }
+    };
+
+    private TextureAtlas mAtlas;
+
+    @Before
+    public void setUp() throws Exception {
+        this.mAtlas = TextureAtlas.create(PAGE, 1);
+    }
+
+    private TextDrawable[] drawables(int count) {
+        TextDrawable.IBuilder builder = TextDrawable.builder().beginConfig().useAtlas(this.mAtlas).endConfig().rect();
+        TextDrawable[] drawables = new TextDrawable[count];
+        for (int i = 0; i < count; i++) {
+            drawables[i] = builder.build(String.valueOf((char) ('A' + i)), Color.WHITE, 0xff000000 | (i * 0x202020));
+            drawables[i].setBounds(0, 0, CELL, CELL);
+            drawables[i].setCallback(this.mCallback);
+        }
+        return drawables;
+    }
+
+    /**
+     * 每次绘制都在新的一帧，之前绘制的区域可以被淘汰
+     */
+    private void drawInNewFrame(Drawable drawable) {
+        AnimationUtils.advanceFrame();
+        drawable.draw(this.mCanvas);
+    }
+
+    private int invalidations(Drawable drawable) {
+        Integer count = this.mInvalidations.get(drawable);
+        return count == null ? 0 : count;
+    }
+
+    @Test
+    public void pastCapacity_evictedOwnerIsInvalidated() throws Exception {
+        TextDrawable[] drawables = drawables(5);
+        for (int i = 0; i < 4; i++) {
+            drawInNewFrame(drawables[i]);
+        }
+        // touch 0 so 1 is the least recently used
+        drawInNewFrame(drawables[0]);
+        assertTrue(this.mInvalidations.isEmpty());
+
+        drawInNewFrame(drawables[4]);
+        assertEquals(1, this.mAtlas.evictionCount());
+        assertEquals(1, invalidations(drawables[1]));
+        assertEquals(0, invalidations(drawables[0]));
+        assertEquals(0, invalidations(drawables[2]));
+        assertEquals(0, invalidations(drawables[3]));
+        assertEquals(0, invalidations(drawables[4]));
+
+        // the evicted drawable gets a slot again on its next draw, evicting the next oldest
+        drawInNewFrame(drawables[1]);
+        assertEquals(1, invalidations(drawables[2]));
+    }
+
+    @Test
+    public void sharedRegion_invalidatesEveryOwner() throws Exception {
+        TextDrawable.IBuilder builder = TextDrawable.builder().beginConfig().useAtlas(this.mAtlas).endConfig().rect();
+        TextDrawable first = builder.build("Z", Color.WHITE, 0xff3f51b5);
+        TextDrawable second = builder.build("Z", Color.WHITE, 0xff3f51b5);
+        for (TextDrawable drawable : new TextDrawable[] { first, second }) {
+            drawable.setBounds(0, 0, CELL, CELL);
+            drawable.setCallback(this.mCallback);
+            drawInNewFrame(drawable);
+        }
+
+        // fill the page so Z is evicted
+        TextDrawable[] others = drawables(4);
+        for (TextDrawable drawable : others) {
+            drawInNewFrame(drawable);
+        }
+        assertEquals(1, invalidations(first));
+        assertEquals(1, invalidations(second));
+    }
+
+    @Test
+    public void removedPage_isNotRecycledWhileReferenced() throws Exception {
+        TextDrawable[] drawables = drawables(2);
+        drawInNewFrame(drawables[0]);
+        Bitmap page = this.mAtlas.obtain(new BitmapCache.Key(drawables[0].getSpec(), CELL, CELL), drawables[0]).bitmap();
+
+        // a drawable of another size needs its own page, the only page is removed
+        TextDrawable big = TextDrawable.builder().beginConfig().useAtlas(this.mAtlas).endConfig().buildRect("B", Color.WHITE, 0xff009688);
+        big.setBounds(0, 0, PAGE, PAGE);
+        drawInNewFrame(big);
+
+        assertEquals(1, this.mAtlas.pageCount());
+        assertEquals(1, invalidations(drawables[0]));
+        assertFalse(page.isRecycled());
+    }
+
+    @Test
+    public void removedPage_withoutOwners_isRecycled() throws Exception {
+        TextDrawable drawable = drawables(1)[0];
+        drawInNewFrame(drawable);
+        TextureAtlas.Region region = this.mAtlas.obtain(new BitmapCache.Key(drawable.getSpec(), CELL, CELL), drawable);
+        Bitmap page = region.bitmap();
+
+        // as if the drawable had been collected
+        region.owners.clear();
+
+        this.mAtlas.evictAll();
+        assertTrue(page.isRecycled());
+    }
+
+    @Test
+    public void trim_invalidatesOwnersOfRemovedPages() throws Exception {
+        TextureAtlas atlas = TextureAtlas.create(PAGE, 2);
+        this.mAtlas = atlas;
+        TextDrawable[] drawables = drawables(5);
+        for (TextDrawable drawable : drawables) {
+            drawInNewFrame(drawable);
+        }
+        assertEquals(2, atlas.pageCount());
+
+        // the first page is the oldest
+        atlas.trimToFraction(0.5f);
+        assertEquals(1, atlas.pageCount());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(1, invalidations(drawables[i]));
+        }
+        assertEquals(0, invalidations(drawables[4]));
+    }
+
+    @Test
+    public void pastCapacityInOneFrame_drawsShapeInsteadOfEvicting() throws Exception {
+        TextDrawable[] drawables = drawables(6);
+        AnimationUtils.advanceFrame();
+        for (int i = 0; i < 4; i++) {
+            drawables[i].draw(this.mCanvas);
+        }
+
+        // the page is full of regions drawn in this frame: no eviction, no invalidation, the shape is drawn directly
+        for (int i = 4; i < 6; i++) {
+            this.mCanvas.ops = 0;
+            drawables[i].draw(this.mCanvas);
+            assertTrue(this.mCanvas.ops > 1);
+        }
+        assertEquals(0, this.mAtlas.evictionCount());
+        assertTrue(this.mInvalidations.isEmpty());
+
+        // a later frame may evict again
+        drawInNewFrame(drawables[4]);
+        assertEquals(1, this.mAtlas.evictionCount());
+        assertEquals(1, invalidations(drawables[0]));
+    }
+
+    @Test
+    public void compaction_doesNotRecycleAPageWhoseMovedRegionsAreReferenced() throws Exception {
+        TextureAtlas atlas = TextureAtlas.create(PAGE, 2);
+        this.mAtlas = atlas;
+        TextDrawable[] drawables = drawables(5);
+        TextureAtlas.Region[] regions = new TextureAtlas.Region[5];
+        for (int i = 0; i < 5; i++) {
+            drawInNewFrame(drawables[i]);
+            regions[i] = atlas.obtain(new BitmapCache.Key(drawables[i].getSpec(), CELL, CELL), drawables[i]);
+        }
+        TextureAtlas.Page full = regions[0].page;
+        TextureAtlas.Page sparse = regions[4].page;
+        assertNotSame(full, sparse);
+
+        // free a slot of the first page so the second page's only region fits into it
+        full.release(regions[0]);
+
+        assertEquals(1, atlas.compact());
+        assertEquals(1, atlas.pageCount());
+        assertSame(full, regions[4].page);
+        assertEquals(1, invalidations(drawables[4]));
+        // the moved drawables may still replay the old page from their display lists
+        assertFalse(sparse.bitmap.isRecycled());
+    }
+}
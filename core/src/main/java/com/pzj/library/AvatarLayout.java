@@ -0,0 +1,219 @@
+package com.pzj.library;
+
+/**
+ * 头像布局
+ *
+ * 与平台无关的几何计算：边框矩形、文本大小及文本居中位置。Android 的 TextDrawable 与 Java2D 的无界面渲染共用这一份计算，
+ * 同样的描述在两端得到相同的几何位置（像素由各自的光栅化及字体决定，不保证逐像素一致）。
+ * 对象可复用，不是线程安全的，每个图像或每次渲染持有一个。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class AvatarLayout {
+
+    public static final int SHAPE_RECT       = 0;
+    public static final int SHAPE_ROUND      = 1;
+    public static final int SHAPE_ROUND_RECT = 2;
+
+    /**
+     * 自动适配时文本占形状内部区域的比例，留出边距
+     */
+    public static final float FIT_RATIO = 0.85f;
+
+    private int   width;
+    private int   height;
+    private float borderLeft;
+    private float borderTop;
+    private float borderRight;
+    private float borderBottom;
+    private float textSize;
+    private float textX;
+    private float textCenterY;
+    private float textY;
+
+    /**
+     * 根据边界计算边框矩形、文本大小及文本水平位置，之后需调用{@link #setFontMetrics(float, float)}确定基线
+     *
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param width           指定宽度，小于0时取边界宽度
+     * @param height          指定高度，小于0时取边界高度
+     * @param borderThickness 边框宽度
+     * @param fontSize        字体大小，小于0时取宽高较小值的一半
+     */
+    public void layout(int left, int top, int right, int bottom, int width, int height, int borderThickness, int fontSize) {
+        // border, stroked on its center line
+        int inset = borderThickness / 2;
+        this.borderLeft = left + inset;
+        this.borderTop = top + inset;
+        this.borderRight = right - inset;
+        this.borderBottom = bottom - inset;
+
+        // text
+        int w = width < 0 ? right - left : width;
+        int h = height < 0 ? bottom - top : height;
+        this.width = w;
+        this.height = h;
+        this.textSize = fontSize < 0 ? (Math.min(w, h) / 2) : fontSize;
+        this.textX = left + w / 2;
+        this.textCenterY = top + h / 2;
+        this.textY = this.textCenterY;
+    }
+
+    /**
+     * 替换{@link #layout}计算的文本大小，如自动适配后的字号，之后需调用{@link #setFontMetrics(float, float)}
+     *
+     * @param textSize
+     */
+    public void setTextSize(float textSize) {
+        this.textSize = textSize;
+    }
+
+    /**
+     * 在 maxSize 以内查找文本完整落在形状内部的最大字号
+     *
+     * 文本按其外接矩形计算：宽、高与字号成正比，由字号为1时的宽、高给出；矩形要求外接矩形在内部区域内，
+     * 圆形要求外接矩形的四个角在内切椭圆内，圆角矩形要求四个角在圆角以内。内部区域为去掉边框后再按{@link #FIT_RATIO}缩小的区域。
+     *
+     * @param shapeType       形状类型，SHAPE_*
+     * @param radius          圆角半径
+     * @param width           形状宽度
+     * @param height          形状高度
+     * @param borderThickness 边框宽度
+     * @param maxSize         最大字号
+     * @param widthPerPx      字号为1时的文本宽度
+     * @param heightPerPx     字号为1时的文本高度（descent - ascent）
+     *
+     * @return
+     */
+    public static float fitTextSize(int shapeType, float radius, int width, int height, int borderThickness, float maxSize, float widthPerPx, float heightPerPx) {
+        float a = (width - 2 * borderThickness) / 2f * FIT_RATIO;
+        float b = (height - 2 * borderThickness) / 2f * FIT_RATIO;
+        if (a <= 0 || b <= 0) {
+            return maxSize;
+        }
+        float r = Math.min(Math.max(0, radius - borderThickness) * FIT_RATIO, Math.min(a, b));
+        if (fits(shapeType, a, b, r, maxSize * widthPerPx / 2, maxSize * heightPerPx / 2)) {
+            return maxSize;
+        }
+
+        // binary search, a quarter pixel is finer than text rendering can show
+        float lo = 0;
+        float hi = maxSize;
+        while (hi - lo > 0.25f) {
+            float mid = (lo + hi) / 2;
+            if (fits(shapeType, a, b, r, mid * widthPerPx / 2, mid * heightPerPx / 2)) {
+                lo = mid;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 半宽 x、半高 y 的居中矩形是否在半轴为 a、b 的形状内
+     */
+    private static boolean fits(int shapeType, float a, float b, float r, float x, float y) {
+        if (x > a || y > b) {
+            return false;
+        }
+        switch (shapeType) {
+            case SHAPE_ROUND:
+                return (x / a) * (x / a) + (y / b) * (y / b) <= 1;
+            case SHAPE_ROUND_RECT:
+                if (x <= a - r || y <= b - r) {
+                    return true;
+                }
+                float dx = x - (a - r);
+                float dy = y - (b - r);
+                return dx * dx + dy * dy <= r * r;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 根据当前文本大小下的字体度量确定基线，使文本垂直居中
+     *
+     * @param ascent  基线以上的高度，按 Android 的约定为负数
+     * @param descent 基线以下的高度，为正数
+     */
+    public void setFontMetrics(float ascent, float descent) {
+        this.textY = this.textCenterY - ((descent + ascent) / 2);
+    }
+
+    /**
+     * 按布局依次绘制背景、边框及文本
+     *
+     * @param painter
+     * @param text
+     * @param shapeType       形状类型，SHAPE_*
+     * @param radius          圆角半径
+     * @param bgColor         背景色
+     * @param borderThickness 边框宽度
+     * @param textColor       文本颜色
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     */
+    public void paint(AvatarPainter painter, String text, int shapeType, float radius, int bgColor, int borderThickness, int textColor, int left, int top, int right, int bottom) {
+        painter.drawShape(shapeType, radius, left, top, right, bottom, bgColor);
+        if (borderThickness > 0) {
+            painter.drawBorder(shapeType, radius, this.borderLeft, this.borderTop, this.borderRight, this.borderBottom, borderThickness, ColorGenerator.darkerShade(bgColor));
+        }
+        if (text != null && text.length() > 0) {
+            painter.drawText(text, this.textX, this.textY, this.textSize, textColor);
+        }
+    }
+
+    /**
+     * 形状宽度，即指定宽度或边界宽度
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * 形状高度，即指定高度或边界高度
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    public float getBorderLeft() {
+        return this.borderLeft;
+    }
+
+    public float getBorderTop() {
+        return this.borderTop;
+    }
+
+    public float getBorderRight() {
+        return this.borderRight;
+    }
+
+    public float getBorderBottom() {
+        return this.borderBottom;
+    }
+
+    public float getTextSize() {
+        return this.textSize;
+    }
+
+    public float getTextX() {
+        return this.textX;
+    }
+
+    /**
+     * 文本基线
+     */
+    public float getTextY() {
+        return this.textY;
+    }
+}
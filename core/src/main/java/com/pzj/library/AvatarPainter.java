@@ -0,0 +1,27 @@
+package com.pzj.library;
+
+/**
+ * 头像绘制接口
+ *
+ * 由各平台实现，{@link AvatarLayout#paint}按布局调用，坐标均为像素。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public interface AvatarPainter {
+
+    /**
+     * 填充形状背景
+     */
+    void drawShape(int shapeType, float radius, int left, int top, int right, int bottom, int color);
+
+    /**
+     * 描边，线宽以矩形边为中线
+     */
+    void drawBorder(int shapeType, float radius, float left, float top, float right, float bottom, float thickness, int color);
+
+    /**
+     * 绘制文本，x 为水平中心，y 为基线
+     */
+    void drawText(String text, float x, float y, float textSize, int color);
+}
@@ -0,0 +1,252 @@
+package com.pzj.library;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 颜色生成器
+ *
+ * 创建时为调色板中的每个颜色预先计算边框色、按下色、高亮色及对比度足够的文本颜色，存放在与调色板下标对应的数组中，
+ * 按下标取用时不再做颜色计算。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class ColorGenerator {
+
+    /**
+     * 每个线程一个随机数生成器，多线程取随机色时互不竞争（ThreadLocalRandom 需要 API 21）
+     */
+    private static final ThreadLocal<Random> sRandom = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random(System.nanoTime() ^ Thread.currentThread().getId());
+        }
+    };
+
+    /**
+     * 边框暗阴影系数
+     */
+    private static final float SHADE_FACTOR   = 0.9f;
+    /**
+     * 按下状态系数
+     */
+    private static final float PRESSED_FACTOR = 0.8f;
+    /**
+     * 高亮状态向白色混合的比例（/256）
+     */
+    private static final int   HIGHLIGHT_MIX  = 64;
+
+    /**
+     * 深色文本，Material grey 900
+     */
+    public static final int TEXT_DARK  = 0xff212121;
+    public static final int TEXT_LIGHT = 0xffffffff;
+
+    /**
+     * 分量 c 对应的(int) (SHADE_FACTOR * c)，与原来的浮点计算结果逐位相同
+     */
+    private static final int[] SHADE_TABLE = new int[256];
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            SHADE_TABLE[c] = (int) (SHADE_FACTOR * c);
+        }
+    }
+
+    // after SHADE_TABLE, the palettes are derived from it on creation
+    public static ColorGenerator DEFAULT;
+
+    public static ColorGenerator MATERIAL;
+
+    static {
+        DEFAULT = create(0xfff16364, 0xfff58559, 0xfff9a43e, 0xffe4c62e, 0xff67bf74, 0xff59a2be, 0xff2093cd, 0xffad62a7, 0xff805781);
+        MATERIAL = create(0xffe57373, 0xfff06292, 0xffba68c8, 0xff9575cd, 0xff7986cb, 0xff64b5f6, 0xff4fc3f7, 0xff4dd0e1, 0xff4db6ac, 0xff81c784, 0xffaed581, 0xffff8a65, 0xffd4e157, 0xffffd54f, 0xffffb74d, 0xffa1887f, 0xff90a4ae);
+    }
+
+    private final int[] mColors;
+    private final int[] mBorderColors;
+    private final int[] mPressedColors;
+    private final int[] mHighlightColors;
+    private final int[] mTextColors;
+
+    public static ColorGenerator create(List<Integer> colorList) {
+        int[] colors = new int[colorList.size()];
+        for (int i = 0; i < colors.length; i++) {
+            colors[i] = colorList.get(i);
+        }
+        return new ColorGenerator(colors);
+    }
+
+    public static ColorGenerator create(int... colors) {
+        return new ColorGenerator(colors.clone());
+    }
+
+    private ColorGenerator(int[] colors) {
+        if (colors.length == 0) {
+            throw new IllegalArgumentException("colors is empty");
+        }
+        this.mColors = colors;
+        this.mBorderColors = new int[colors.length];
+        this.mPressedColors = new int[colors.length];
+        this.mHighlightColors = new int[colors.length];
+        this.mTextColors = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            int color = colors[i];
+            this.mBorderColors[i] = darkerShade(color);
+            this.mPressedColors[i] = scale(color, PRESSED_FACTOR);
+            this.mHighlightColors[i] = mixWhite(color, HIGHLIGHT_MIX);
+            this.mTextColors[i] = contrastTextColor(color);
+        }
+    }
+
+    public int getRandomColor() {
+        return this.mColors[getRandomColorIndex()];
+    }
+
+    public int getColor(Object key) {
+        return this.mColors[getColorIndex(key)];
+    }
+
+    /**
+     * 随机的调色板下标
+     */
+    public int getRandomColorIndex() {
+        return sRandom.get().nextInt(this.mColors.length);
+    }
+
+    /**
+     * key 对应的调色板下标，与{@link #getColor(Object)}选取的颜色相同，
+     * 配合{@link #getColorAt(int)}等按下标取色的方法及 TextDrawable 的调色板接口使用
+     *
+     * @param key
+     *
+     * @return [0, size())
+     */
+    public int getColorIndex(Object key) {
+        return indexFor(key.hashCode(), this.mColors.length);
+    }
+
+    /**
+     * 颜色个数
+     */
+    public int size() {
+        return this.mColors.length;
+    }
+
+    /**
+     * 调色板中第 index 个颜色
+     */
+    public int getColorAt(int index) {
+        return this.mColors[index];
+    }
+
+    /**
+     * 第 index 个颜色的边框色（暗阴影）
+     */
+    public int getBorderColor(int index) {
+        return this.mBorderColors[index];
+    }
+
+    /**
+     * 第 index 个颜色的按下色
+     */
+    public int getPressedColor(int index) {
+        return this.mPressedColors[index];
+    }
+
+    /**
+     * 第 index 个颜色的高亮色
+     */
+    public int getHighlightColor(int index) {
+        return this.mHighlightColors[index];
+    }
+
+    /**
+     * 第 index 个颜色上对比度较高的文本颜色，{@link #TEXT_LIGHT}或{@link #TEXT_DARK}
+     */
+    public int getTextColor(int index) {
+        return this.mTextColors[index];
+    }
+
+    /**
+     * 获取暗阴影色，用作边框颜色，查表计算，结果不透明
+     *
+     * @param color
+     *
+     * @return
+     */
+    public static int darkerShade(int color) {
+        return 0xff000000 | (SHADE_TABLE[(color >> 16) & 0xff] << 16) | (SHADE_TABLE[(color >> 8) & 0xff] << 8) | SHADE_TABLE[color & 0xff];
+    }
+
+    /**
+     * 按 WCAG 相对亮度选择对比度较高的文本颜色
+     *
+     * @param bgColor
+     *
+     * @return {@link #TEXT_LIGHT}或{@link #TEXT_DARK}
+     */
+    public static int contrastTextColor(int bgColor) {
+        double bg = luminance(bgColor);
+        double light = contrast(luminance(TEXT_LIGHT), bg);
+        double dark = contrast(luminance(TEXT_DARK), bg);
+        return light >= dark ? TEXT_LIGHT : TEXT_DARK;
+    }
+
+    /**
+     * 两个颜色的 WCAG 对比度，1~21
+     */
+    public static double contrast(int color1, int color2) {
+        return contrast(luminance(color1), luminance(color2));
+    }
+
+    private static double contrast(double l1, double l2) {
+        return (Math.max(l1, l2) + 0.05) / (Math.min(l1, l2) + 0.05);
+    }
+
+    private static double luminance(int color) {
+        return 0.2126 * linear((color >> 16) & 0xff) + 0.7152 * linear((color >> 8) & 0xff) + 0.0722 * linear(color & 0xff);
+    }
+
+    private static double linear(int channel) {
+        double c = channel / 255.0;
+        return c <= 0.03928 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static int scale(int color, float factor) {
+        int r = (int) (factor * ((color >> 16) & 0xff));
+        int g = (int) (factor * ((color >> 8) & 0xff));
+        int b = (int) (factor * (color & 0xff));
+        return (color & 0xff000000) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int mixWhite(int color, int amount) {
+        int r = (color >> 16) & 0xff;
+        int g = (color >> 8) & 0xff;
+        int b = color & 0xff;
+        r += ((255 - r) * amount) >> 8;
+        g += ((255 - g) * amount) >> 8;
+        b += ((255 - b) * amount) >> 8;
+        return (color & 0xff000000) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * 哈希值映射到[0, size)：先打散哈希值（MurmurHash3 fmix32），使相近的字符串也均匀分布，
+     * 再用无符号乘法取高32位代替取模，结果始终非负
+     *
+     * @param hash
+     * @param size
+     *
+     * @return
+     */
+    static int indexFor(int hash, int size) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return (int) (((h & 0xffffffffL) * size) >>> 32);
+    }
+}
@@ -0,0 +1,468 @@
+package com.pzj.library;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 头像磁盘缓存
+ *
+ * 进程重启后仍然有效的二级缓存，键为{@link StableHash}计算的64位哈希，值为任意字节（如位图像素）。
+ * 目录下一个内存映射的索引文件记录每个条目的键、长度、CRC32 及最近访问序号，每个值单独存为一个 blob 文件：
+ * 读取时校验长度及 CRC，不一致（进程被杀、磁盘损坏）的条目直接删除并按未命中处理；
+ * 总字节数或条目数超出上限时淘汰最久未访问的条目（内存中按访问顺序维护键，淘汰不需要扫描索引）。
+ * 索引格式不匹配时清空目录重建。线程安全。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class DiskAvatarCache {
+
+    private static final String INDEX_FILE  = "index";
+    private static final String BLOB_SUFFIX = ".blob";
+    private static final String TMP_SUFFIX  = ".tmp";
+
+    private static final int MAGIC   = 0x41564331;  // "AVC1"
+    private static final int VERSION = 1;
+
+    // header: magic, version, capacity, reserved
+    private static final int HEADER_SIZE = 16;
+    // slot: key(8), length(4), crc(4), lastAccess(8), state(4), reserved(4)
+    private static final int SLOT_SIZE   = 32;
+
+    private static final int STATE_EMPTY   = 0;
+    private static final int STATE_USED    = 1;
+    private static final int STATE_DELETED = 2;
+
+    private final File             mDir;
+    private final long             mMaxBytes;
+    private final int              mMaxEntries;
+    private final int              mCapacity;
+    private final RandomAccessFile mIndexFile;
+    private final MappedByteBuffer mIndex;
+
+    // keys in access order, eldest first
+    private final LinkedHashMap<Long, Boolean> mLru = new LinkedHashMap<Long, Boolean>(16, 0.75f, true);
+
+    private long mBytes;
+    private int  mCount;
+    private int  mDeleted;
+    private long mClock;
+    private int  mHitCount;
+    private int  mMissCount;
+    private int  mCorruptCount;
+    private int  mEvictionCount;
+
+    /**
+     * 打开（或创建）磁盘缓存
+     *
+     * @param dir        缓存目录，由缓存独占
+     * @param maxBytes   值的最大总字节数
+     * @param maxEntries 最大条目数
+     *
+     * @return
+     *
+     * @throws IOException
+     */
+    public static DiskAvatarCache open(File dir, long maxBytes, int maxEntries) throws IOException {
+        if (maxBytes <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("maxBytes and maxEntries must be > 0");
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        return new DiskAvatarCache(dir, maxBytes, maxEntries);
+    }
+
+    private DiskAvatarCache(File dir, long maxBytes, int maxEntries) throws IOException {
+        this.mDir = dir;
+        this.mMaxBytes = maxBytes;
+        this.mMaxEntries = maxEntries;
+        // keep the load factor below 1/2 so probe sequences stay short
+        this.mCapacity = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+
+        File indexFile = new File(dir, INDEX_FILE);
+        long indexSize = HEADER_SIZE + (long) this.mCapacity * SLOT_SIZE;
+        boolean valid = indexFile.length() == indexSize;
+        this.mIndexFile = new RandomAccessFile(indexFile, "rw");
+        this.mIndexFile.setLength(indexSize);
+        this.mIndex = this.mIndexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, indexSize);
+        valid = valid && this.mIndex.getInt(0) == MAGIC && this.mIndex.getInt(4) == VERSION && this.mIndex.getInt(8) == this.mCapacity;
+        if (valid) {
+            load();
+        }
+        else {
+            reset();
+        }
+        deleteOrphans();
+    }
+
+    /**
+     * 读取缓存值
+     *
+     * @param key
+     *
+     * @return 未命中或条目已损坏时返回 null
+     */
+    public synchronized byte[] get(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            this.mMissCount++;
+            return null;
+        }
+        int offset = offset(slot);
+        int length = this.mIndex.getInt(offset + 8);
+        int crc = this.mIndex.getInt(offset + 12);
+        byte[] data = read(blob(key), length);
+        if (data == null || crc(data) != crc) {
+            this.mCorruptCount++;
+            this.mMissCount++;
+            delete(slot);
+            return null;
+        }
+        this.mIndex.putLong(offset + 16, ++this.mClock);
+        this.mLru.get(key);
+        this.mHitCount++;
+        return data;
+    }
+
+    /**
+     * 写入缓存值，超出上限时淘汰最久未访问的条目；值本身超出总字节数上限时不写入，但仍删除该键原有的值
+     *
+     * @param key
+     * @param data
+     *
+     * @throws IOException
+     */
+    public synchronized void put(long key, byte[] data) throws IOException {
+        int slot = find(key);
+        if (slot >= 0) {
+            delete(slot);
+        }
+        if (data.length > this.mMaxBytes) {
+            return;
+        }
+
+        // write to a temp file and rename, a crash never leaves a half-written blob under the real name
+        File tmp = new File(this.mDir, Long.toHexString(key) + TMP_SUFFIX);
+        FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            out.write(data);
+        }
+        finally {
+            out.close();
+        }
+        File blob = blob(key);
+        if (!tmp.renameTo(blob)) {
+            tmp.delete();
+            throw new IOException("cannot rename " + tmp);
+        }
+
+        if (this.mDeleted > this.mCapacity / 4) {
+            rehash();
+        }
+        slot = insertSlot(key);
+        if (state(slot) == STATE_DELETED) {
+            this.mDeleted--;
+        }
+        int offset = offset(slot);
+        this.mIndex.putLong(offset, key);
+        this.mIndex.putInt(offset + 8, data.length);
+        this.mIndex.putInt(offset + 12, crc(data));
+        this.mIndex.putLong(offset + 16, ++this.mClock);
+        this.mIndex.putInt(offset + 24, STATE_USED);
+        this.mLru.put(key, Boolean.TRUE);
+        this.mBytes += data.length;
+        this.mCount++;
+
+        trimToSize();
+    }
+
+    /**
+     * 删除缓存值
+     *
+     * @param key
+     */
+    public synchronized void remove(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            delete(slot);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void evictAll() {
+        for (int slot = 0; slot < this.mCapacity; slot++) {
+            if (state(slot) == STATE_USED) {
+                blob(this.mIndex.getLong(offset(slot))).delete();
+            }
+        }
+        reset();
+    }
+
+    /**
+     * 把索引刷到磁盘，进程退出前调用；不调用时由系统择机写回
+     */
+    public synchronized void flush() {
+        this.mIndex.force();
+    }
+
+    public synchronized void close() throws IOException {
+        this.mIndex.force();
+        this.mIndexFile.close();
+    }
+
+    /**
+     * 当前值的总字节数
+     */
+    public synchronized long size() {
+        return this.mBytes;
+    }
+
+    public synchronized int count() {
+        return this.mCount;
+    }
+
+    public synchronized int hitCount() {
+        return this.mHitCount;
+    }
+
+    public synchronized int missCount() {
+        return this.mMissCount;
+    }
+
+    /**
+     * 因校验失败被删除的条目数
+     */
+    public synchronized int corruptCount() {
+        return this.mCorruptCount;
+    }
+
+    public synchronized int evictionCount() {
+        return this.mEvictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DiskAvatarCache[size=" + this.mBytes + ",count=" + this.mCount + ",hits=" + this.mHitCount + ",misses=" + this.mMissCount + ",corrupt=" + this.mCorruptCount + ",evictions=" + this.mEvictionCount + "]";
+    }
+
+    private void load() {
+        List<long[]> entries = new ArrayList<long[]>();
+        for (int slot = 0; slot < this.mCapacity; slot++) {
+            int state = state(slot);
+            if (state == STATE_USED) {
+                int offset = offset(slot);
+                long access = this.mIndex.getLong(offset + 16);
+                this.mBytes += this.mIndex.getInt(offset + 8);
+                this.mCount++;
+                this.mClock = Math.max(this.mClock, access);
+                entries.add(new long[] { access, this.mIndex.getLong(offset) });
+            }
+            else if (state == STATE_DELETED) {
+                this.mDeleted++;
+            }
+        }
+
+        // rebuild the access order once from the persisted access numbers
+        Collections.sort(entries, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return a[0] < b[0] ? -1 : a[0] == b[0] ? 0 : 1;
+            }
+        });
+        for (long[] entry : entries) {
+            this.mLru.put(entry[1], Boolean.TRUE);
+        }
+        trimToSize();
+    }
+
+    private void reset() {
+        for (int i = 0; i < HEADER_SIZE + this.mCapacity * SLOT_SIZE; i += 4) {
+            this.mIndex.putInt(i, 0);
+        }
+        this.mIndex.putInt(0, MAGIC);
+        this.mIndex.putInt(4, VERSION);
+        this.mIndex.putInt(8, this.mCapacity);
+        this.mBytes = 0;
+        this.mCount = 0;
+        this.mDeleted = 0;
+        this.mClock = 0;
+        this.mLru.clear();
+    }
+
+    /**
+     * 已删除的槽过多时重新插入所有条目，清除删除标记，避免查找未命中时探测过长
+     */
+    private void rehash() {
+        long[] entries = new long[this.mCount * 3];
+        int n = 0;
+        for (int slot = 0; slot < this.mCapacity; slot++) {
+            if (state(slot) == STATE_USED) {
+                int offset = offset(slot);
+                entries[n++] = this.mIndex.getLong(offset);
+                entries[n++] = ((long) this.mIndex.getInt(offset + 8) << 32) | (this.mIndex.getInt(offset + 12) & 0xffffffffL);
+                entries[n++] = this.mIndex.getLong(offset + 16);
+            }
+        }
+        for (int slot = 0; slot < this.mCapacity; slot++) {
+            this.mIndex.putInt(offset(slot) + 24, STATE_EMPTY);
+        }
+        for (int i = 0; i < n; i += 3) {
+            int offset = offset(insertSlot(entries[i]));
+            this.mIndex.putLong(offset, entries[i]);
+            this.mIndex.putInt(offset + 8, (int) (entries[i + 1] >>> 32));
+            this.mIndex.putInt(offset + 12, (int) entries[i + 1]);
+            this.mIndex.putLong(offset + 16, entries[i + 2]);
+            this.mIndex.putInt(offset + 24, STATE_USED);
+        }
+        this.mDeleted = 0;
+    }
+
+    /**
+     * 删除索引中没有记录的 blob 及写了一半的临时文件
+     */
+    private void deleteOrphans() {
+        File[] files = this.mDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TMP_SUFFIX)) {
+                file.delete();
+            }
+            else if (name.endsWith(BLOB_SUFFIX)) {
+                try {
+                    long key = parseKey(name.substring(0, name.length() - BLOB_SUFFIX.length()));
+                    if (find(key) < 0) {
+                        file.delete();
+                    }
+                }
+                catch (NumberFormatException e) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private void trimToSize() {
+        while (!this.mLru.isEmpty() && (this.mBytes > this.mMaxBytes || this.mCount > this.mMaxEntries)) {
+            delete(find(this.mLru.keySet().iterator().next()));
+            this.mEvictionCount++;
+        }
+    }
+
+    private void delete(int slot) {
+        int offset = offset(slot);
+        long key = this.mIndex.getLong(offset);
+        blob(key).delete();
+        this.mLru.remove(key);
+        this.mBytes -= this.mIndex.getInt(offset + 8);
+        this.mCount--;
+        this.mIndex.putInt(offset + 24, STATE_DELETED);
+        this.mDeleted++;
+    }
+
+    /**
+     * 线性探测查找键所在的槽
+     *
+     * @return 不存在时返回-1
+     */
+    private int find(long key) {
+        int mask = this.mCapacity - 1;
+        int slot = (int) key & mask;
+        for (int i = 0; i < this.mCapacity; i++) {
+            int state = state(slot);
+            if (state == STATE_EMPTY) {
+                return -1;
+            }
+            if (state == STATE_USED && this.mIndex.getLong(offset(slot)) == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 查找可写入的槽，优先复用已删除的槽
+     */
+    private int insertSlot(long key) {
+        int mask = this.mCapacity - 1;
+        int slot = (int) key & mask;
+        while (state(slot) == STATE_USED) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int state(int slot) {
+        return this.mIndex.getInt(offset(slot) + 24);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private File blob(long key) {
+        return new File(this.mDir, Long.toHexString(key) + BLOB_SUFFIX);
+    }
+
+    /**
+     * 解析 Long.toHexString() 生成的无符号十六进制键（Long.parseUnsignedLong 需要 API 26）
+     */
+    private static long parseKey(String hex) {
+        if (hex.length() == 0 || hex.length() > 16) {
+            throw new NumberFormatException(hex);
+        }
+        int split = Math.max(0, hex.length() - 8);
+        long high = split > 0 ? Long.parseLong(hex.substring(0, split), 16) : 0;
+        return (high << 32) | Long.parseLong(hex.substring(split), 16);
+    }
+
+    private static int crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] read(File file, int length) {
+        if (file.length() != length) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        try {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                int read = 0;
+                while (read < length) {
+                    int n = in.read(data, read, length - read);
+                    if (n < 0) {
+                        return null;
+                    }
+                    read += n;
+                }
+            }
+            finally {
+                in.close();
+            }
+        }
+        catch (IOException e) {
+            return null;
+        }
+        return data;
+    }
+}
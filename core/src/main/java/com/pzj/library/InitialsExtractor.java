@@ -0,0 +1,268 @@
+package com.pzj.library;
+
+import java.text.BreakIterator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 首字母提取器
+ *
+ * 按字素簇（用户看到的一个字符）截取，不会拆开代理对、emoji 及组合字符；大写转换使用创建时指定的 Locale，
+ * 未指定时每次调用取当前的默认 Locale，用户切换语言后立即生效。
+ * 列表滚动时同一名字会被反复传入，结果按原始文本缓存在有界的并发表中，缓存的结果记录计算时的 Locale，Locale 变化后重新计算。
+ * 线程安全且查找不加锁：多个线程（如共享同一个{@link #DEFAULT}的模板）不会在缓存上互相等待。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class InitialsExtractor {
+
+    /**
+     * 第一个字素，如 "john smith" -> "j"
+     */
+    public static final int RULE_FIRST_GRAPHEME  = 0;
+    /**
+     * 第一个和最后一个单词的首字素，如 "John Ronald Tolkien" -> "JT"，只有一个单词时同{@link #RULE_FIRST_GRAPHEME}
+     */
+    public static final int RULE_FIRST_LAST_WORD = 1;
+    /**
+     * 中文姓氏，复姓取两个字，如 "欧阳娜娜" -> "欧阳"、"王小明" -> "王"；非中文名字同{@link #RULE_FIRST_LAST_WORD}
+     */
+    public static final int RULE_CJK_SURNAME     = 2;
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final String[] COMPOUND_SURNAMES = {
+            "欧阳", "太史", "端木", "上官", "司马", "东方", "独孤", "南宫", "万俟", "闻人", "夏侯", "诸葛", "尉迟", "公羊", "赫连", "澹台", "皇甫",
+            "宗政", "濮阳", "公冶", "太叔", "申屠", "公孙", "慕容", "仲孙", "钟离", "长孙", "宇文", "司徒", "鲜于", "司空", "闾丘", "子车", "亓官",
+            "司寇", "巫马", "公西", "颛孙", "壤驷", "公良", "漆雕", "乐正", "宰父", "谷梁", "拓跋", "夹谷", "轩辕", "令狐", "段干", "百里", "呼延",
+            "东郭", "南门", "羊舌", "微生", "公户", "公玉", "公仪", "梁丘", "公仲", "公上", "公门", "公山", "公坚", "左丘", "公伯", "西门", "公祖",
+            "第五", "公乘", "贯丘", "公皙", "南荣", "东里", "东宫", "仲长", "子书", "子桑", "即墨", "达奚", "褚师"
+    };
+
+    /**
+     * 默认提取器：第一个字素，跟随当前的默认 Locale
+     */
+    public static final InitialsExtractor DEFAULT = create(RULE_FIRST_GRAPHEME);
+
+    private final int                              mRule;
+    private final Locale                           mLocale;
+    private final int                              mMaxEntries;
+    private final ConcurrentHashMap<String, Entry> mMemo      = new ConcurrentHashMap<String, Entry>();
+    private final AtomicInteger                    mCount     = new AtomicInteger();
+    // BreakIterator is not thread-safe, each thread keeps its own
+    private final ThreadLocal<Graphemes>           mGraphemes = new ThreadLocal<Graphemes>();
+
+    /**
+     * 创建跟随默认 Locale 的提取器
+     *
+     * @param rule 提取规则，RULE_*
+     *
+     * @return
+     */
+    public static InitialsExtractor create(int rule) {
+        return create(rule, null, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param rule       提取规则，RULE_*
+     * @param locale     断字及大写转换使用的 Locale，null 表示每次调用取当前的默认 Locale
+     * @param maxEntries 缓存的名字个数上限，0 表示不缓存
+     *
+     * @return
+     */
+    public static InitialsExtractor create(int rule, Locale locale, int maxEntries) {
+        if (rule < RULE_FIRST_GRAPHEME || rule > RULE_CJK_SURNAME) {
+            throw new IllegalArgumentException("unknown rule: " + rule);
+        }
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries < 0");
+        }
+        return new InitialsExtractor(rule, locale, maxEntries);
+    }
+
+    private InitialsExtractor(int rule, Locale locale, int maxEntries) {
+        this.mRule = rule;
+        this.mLocale = locale;
+        this.mMaxEntries = maxEntries;
+    }
+
+    /**
+     * 提取首字母
+     *
+     * @param text
+     * @param toUpperCase 是否转为大写
+     *
+     * @return text 为 null 或空串时原样返回
+     */
+    public String extract(String text, boolean toUpperCase) {
+        if (text == null || text.length() == 0) {
+            return text;
+        }
+        Locale locale = getLocale();
+        Entry entry = this.mMemo.get(text);
+        if (entry == null || !entry.locale.equals(locale)) {
+            String initials = initials(text, locale);
+            entry = new Entry(locale, initials, initials.toUpperCase(locale));
+            remember(text, entry);
+        }
+        return toUpperCase ? entry.upperCase : entry.initials;
+    }
+
+    /**
+     * 放入缓存，超出上限时移除任意一个条目（近似淘汰，不为 LRU 顺序加锁）
+     */
+    private void remember(String text, Entry entry) {
+        if (this.mMaxEntries == 0) {
+            return;
+        }
+        if (this.mMemo.put(text, entry) != null) {
+            return;
+        }
+        if (this.mCount.incrementAndGet() > this.mMaxEntries) {
+            Iterator<String> it = this.mMemo.keySet().iterator();
+            while (this.mCount.get() > this.mMaxEntries && it.hasNext()) {
+                if (this.mMemo.remove(it.next()) != null) {
+                    this.mCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    public int getRule() {
+        return this.mRule;
+    }
+
+    /**
+     * 当前使用的 Locale：创建时指定的，或当前的默认 Locale
+     */
+    public Locale getLocale() {
+        return this.mLocale != null ? this.mLocale : Locale.getDefault();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void evictAll() {
+        Iterator<String> it = this.mMemo.keySet().iterator();
+        while (it.hasNext()) {
+            if (this.mMemo.remove(it.next()) != null) {
+                this.mCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 缓存的名字个数
+     */
+    public int size() {
+        return this.mMemo.size();
+    }
+
+    private String initials(String text, Locale locale) {
+        BreakIterator graphemes = graphemes(locale);
+        int start = skipWhitespace(text, 0);
+        if (start == text.length()) {
+            return text.substring(0, firstGraphemeEnd(graphemes, text, 0));
+        }
+        if (this.mRule == RULE_CJK_SURNAME && isCjk(text.codePointAt(start))) {
+            for (String surname : COMPOUND_SURNAMES) {
+                if (text.startsWith(surname, start)) {
+                    return surname;
+                }
+            }
+            return text.substring(start, firstGraphemeEnd(graphemes, text, start));
+        }
+        String first = text.substring(start, firstGraphemeEnd(graphemes, text, start));
+        if (this.mRule == RULE_FIRST_GRAPHEME) {
+            return first;
+        }
+        int last = lastWordStart(text);
+        if (last <= start) {
+            return first;
+        }
+        return first + text.substring(last, firstGraphemeEnd(graphemes, text, last));
+    }
+
+    private BreakIterator graphemes(Locale locale) {
+        Graphemes graphemes = this.mGraphemes.get();
+        if (graphemes == null || !graphemes.locale.equals(locale)) {
+            graphemes = new Graphemes(locale);
+            this.mGraphemes.set(graphemes);
+        }
+        return graphemes.iterator;
+    }
+
+    private static int firstGraphemeEnd(BreakIterator graphemes, String text, int start) {
+        graphemes.setText(text);
+        int end = graphemes.following(start);
+        return end == BreakIterator.DONE ? text.length() : end;
+    }
+
+    private static int skipWhitespace(String text, int index) {
+        while (index < text.length()) {
+            int codePoint = text.codePointAt(index);
+            if (!isSpace(codePoint)) {
+                break;
+            }
+            index += Character.charCount(codePoint);
+        }
+        return index;
+    }
+
+    /**
+     * 最后一个单词的起始位置
+     */
+    private static int lastWordStart(String text) {
+        int end = text.length();
+        while (end > 0 && isSpace(text.codePointBefore(end))) {
+            end -= Character.charCount(text.codePointBefore(end));
+        }
+        int start = end;
+        while (start > 0 && !isSpace(text.codePointBefore(start))) {
+            start -= Character.charCount(text.codePointBefore(start));
+        }
+        return start;
+    }
+
+    private static boolean isSpace(int codePoint) {
+        return Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(codePoint);
+        return block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B || block == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS;
+    }
+
+    /**
+     * 缓存的结果及计算时的 Locale
+     */
+    private static final class Entry {
+
+        final Locale locale;
+        final String initials;
+        final String upperCase;
+
+        Entry(Locale locale, String initials, String upperCase) {
+            this.locale = locale;
+            this.initials = initials;
+            this.upperCase = upperCase;
+        }
+    }
+
+    /**
+     * 线程自己的字素断点迭代器
+     */
+    private static final class Graphemes {
+
+        final Locale        locale;
+        final BreakIterator iterator;
+
+        Graphemes(Locale locale) {
+            this.locale = locale;
+            this.iterator = BreakIterator.getCharacterInstance(locale);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pzj.library;
+
+/**
+ * 稳定的64位哈希
+ *
+ * FNV-1a 累加后再做一次 MurmurHash3 fmix64 打散。与 hashCode() 不同，结果只取决于输入的值，
+ * 不随进程、系统版本变化，可作为磁盘缓存的键跨进程使用。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class StableHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME        = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    public StableHash putInt(int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            this.hash = (this.hash ^ ((value >>> shift) & 0xff)) * PRIME;
+        }
+        return this;
+    }
+
+    public StableHash putLong(long value) {
+        return putInt((int) value).putInt((int) (value >>> 32));
+    }
+
+    public StableHash putFloat(float value) {
+        return putInt(Float.floatToIntBits(value));
+    }
+
+    public StableHash putBoolean(boolean value) {
+        return putInt(value ? 1 : 0);
+    }
+
+    /**
+     * 按 UTF-16 代码单元累加，先累加长度，null 与空串不同
+     */
+    public StableHash putString(String value) {
+        if (value == null) {
+            return putInt(-1);
+        }
+        putInt(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            this.hash = (this.hash ^ (c & 0xff)) * PRIME;
+            this.hash = (this.hash ^ (c >>> 8)) * PRIME;
+        }
+        return this;
+    }
+
+    public long get() {
+        long h = this.hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
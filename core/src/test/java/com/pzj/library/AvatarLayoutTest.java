@@ -0,0 +1,74 @@
+package com.pzj.library;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * AvatarLayout 单元测试
+ */
+public class AvatarLayoutTest {
+
+    private static final float DELTA = 0.0001f;
+
+    @Test
+    public void layout_defaultFontSize_isHalfOfShortSide() throws Exception {
+        AvatarLayout layout = new AvatarLayout();
+        layout.layout(10, 20, 110, 80, -1, -1, 0, -1);
+        assertEquals(30, layout.getTextSize(), DELTA);
+        assertEquals(60, layout.getTextX(), DELTA);
+    }
+
+    @Test
+    public void layout_borderIsInsetByHalfThickness() throws Exception {
+        AvatarLayout layout = new AvatarLayout();
+        layout.layout(0, 0, 100, 100, 100, 100, 5, 40);
+        assertEquals(2, layout.getBorderLeft(), DELTA);
+        assertEquals(2, layout.getBorderTop(), DELTA);
+        assertEquals(98, layout.getBorderRight(), DELTA);
+        assertEquals(98, layout.getBorderBottom(), DELTA);
+        assertEquals(40, layout.getTextSize(), DELTA);
+    }
+
+    @Test
+    public void setFontMetrics_centersBaseline() throws Exception {
+        AvatarLayout layout = new AvatarLayout();
+        layout.layout(0, 0, 100, 100, -1, -1, 0, -1);
+        layout.setFontMetrics(-40, 10);
+        assertEquals(65, layout.getTextY(), DELTA);
+    }
+
+    @Test
+    public void fitTextSize_singleLetter_keepsMaxSize() throws Exception {
+        assertEquals(50, AvatarLayout.fitTextSize(AvatarLayout.SHAPE_RECT, 0, 100, 100, 0, 50, 0.6f, 1.2f), DELTA);
+        assertEquals(50, AvatarLayout.fitTextSize(AvatarLayout.SHAPE_ROUND, 0, 100, 100, 0, 50, 0.6f, 1.2f), DELTA);
+    }
+
+    @Test
+    public void fitTextSize_wideTextInCircle_shrinksToLargestFit() throws Exception {
+        float size = AvatarLayout.fitTextSize(AvatarLayout.SHAPE_ROUND, 0, 100, 100, 0, 50, 1.4f, 1.2f);
+        assertTrue(size < 50);
+        assertTrue(ovalValue(size, 1.4f, 1.2f, 42.5f) <= 1);
+        assertTrue(ovalValue(size + 0.5f, 1.4f, 1.2f, 42.5f) > 1);
+
+        // a circle leaves less room than the rectangle around it, a rounded rectangle is in between
+        float round = AvatarLayout.fitTextSize(AvatarLayout.SHAPE_ROUND, 0, 100, 100, 0, 60, 1.4f, 1.2f);
+        float roundRect = AvatarLayout.fitTextSize(AvatarLayout.SHAPE_ROUND_RECT, 30, 100, 100, 0, 60, 1.4f, 1.2f);
+        float rect = AvatarLayout.fitTextSize(AvatarLayout.SHAPE_RECT, 0, 100, 100, 0, 60, 1.4f, 1.2f);
+        assertTrue(round < roundRect);
+        assertTrue(roundRect < rect);
+    }
+
+    @Test
+    public void fitTextSize_borderReducesRoom() throws Exception {
+        float plain = AvatarLayout.fitTextSize(AvatarLayout.SHAPE_RECT, 0, 100, 100, 0, 50, 1.4f, 1.2f);
+        float bordered = AvatarLayout.fitTextSize(AvatarLayout.SHAPE_RECT, 0, 100, 100, 10, 50, 1.4f, 1.2f);
+        assertTrue(bordered < plain);
+    }
+
+    private static float ovalValue(float size, float widthPerPx, float heightPerPx, float semiAxis) {
+        float x = size * widthPerPx / 2 / semiAxis;
+        float y = size * heightPerPx / 2 / semiAxis;
+        return x * x + y * y;
+    }
+}
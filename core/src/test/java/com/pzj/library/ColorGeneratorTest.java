@@ -0,0 +1,101 @@
+package com.pzj.library;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * ColorGenerator 单元测试
+ */
+public class ColorGeneratorTest {
+
+    @Test
+    public void getColor_minValueHashCode() throws Exception {
+        Object key = new Object() {
+            @Override
+            public int hashCode() {
+                return Integer.MIN_VALUE;
+            }
+        };
+        int color = ColorGenerator.MATERIAL.getColor(key);
+        assertTrue(contains(ColorGenerator.MATERIAL, color));
+    }
+
+    @Test
+    public void indexFor_isInRange() throws Exception {
+        int[] hashes = { 0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, "polygenelubricants".hashCode() };
+        for (int hash : hashes) {
+            for (int size = 1; size <= 17; size++) {
+                int index = ColorGenerator.indexFor(hash, size);
+                assertTrue(index >= 0 && index < size);
+            }
+        }
+    }
+
+    @Test
+    public void indexFor_spreadsSimilarKeys() throws Exception {
+        int size = 9;
+        int[] counts = new int[size];
+        int total = 9000;
+        for (int i = 0; i < total; i++) {
+            counts[ColorGenerator.indexFor(("user" + i).hashCode(), size)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > total / size / 2);
+        }
+    }
+
+    @Test
+    public void create_fromList() throws Exception {
+        ColorGenerator generator = ColorGenerator.create(Arrays.asList(0xff000000, 0xffffffff));
+        assertEquals(2, generator.size());
+        assertEquals(generator.getColor("A"), ColorGenerator.create(0xff000000, 0xffffffff).getColor("A"));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(contains(generator, generator.getRandomColor()));
+        }
+    }
+
+    @Test
+    public void darkerShade_matchesFloatMath() throws Exception {
+        for (int c = 0; c < 256; c++) {
+            int color = 0x80000000 | (c << 16) | ((255 - c) << 8) | (c / 2);
+            int expected = 0xff000000 | ((int) (0.9f * c) << 16) | ((int) (0.9f * (255 - c)) << 8) | (int) (0.9f * (c / 2));
+            assertEquals(expected, ColorGenerator.darkerShade(color));
+        }
+    }
+
+    @Test
+    public void derivedColors_matchPalette() throws Exception {
+        ColorGenerator generator = ColorGenerator.MATERIAL;
+        for (int i = 0; i < generator.size(); i++) {
+            int color = generator.getColorAt(i);
+            assertEquals(ColorGenerator.darkerShade(color), generator.getBorderColor(i));
+            assertTrue(luma(generator.getPressedColor(i)) < luma(color));
+            assertTrue(luma(generator.getHighlightColor(i)) > luma(color));
+            int text = generator.getTextColor(i);
+            int other = text == ColorGenerator.TEXT_LIGHT ? ColorGenerator.TEXT_DARK : ColorGenerator.TEXT_LIGHT;
+            assertTrue(ColorGenerator.contrast(text, color) >= ColorGenerator.contrast(other, color));
+        }
+    }
+
+    @Test
+    public void contrastTextColor() throws Exception {
+        assertEquals(ColorGenerator.TEXT_LIGHT, ColorGenerator.contrastTextColor(0xff000000));
+        assertEquals(ColorGenerator.TEXT_DARK, ColorGenerator.contrastTextColor(0xffffffff));
+        assertEquals(ColorGenerator.TEXT_DARK, ColorGenerator.contrastTextColor(0xffffd54f));
+    }
+
+    private static int luma(int color) {
+        return ((color >> 16) & 0xff) + ((color >> 8) & 0xff) + (color & 0xff);
+    }
+
+    private static boolean contains(ColorGenerator generator, int color) {
+        for (int i = 0; i < 1000; i++) {
+            if (generator.getColor(i) == color) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,157 @@
+package com.pzj.library;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * DiskAvatarCache 单元测试
+ */
+public class DiskAvatarCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void put_get_roundTrip() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 1024, 16);
+        cache.put(1L, bytes(10, 1));
+        assertArrayEquals(bytes(10, 1), cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(10, cache.size());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        cache.close();
+    }
+
+    @Test
+    public void reopen_keepsEntries() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 1024, 16);
+        cache.put(-42L, bytes(20, 7));
+        cache.close();
+
+        cache = DiskAvatarCache.open(this.folder.getRoot(), 1024, 16);
+        assertEquals(1, cache.count());
+        assertArrayEquals(bytes(20, 7), cache.get(-42L));
+        cache.close();
+    }
+
+    @Test
+    public void corruptBlob_isDropped() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 1024, 16);
+        cache.put(5L, bytes(16, 3));
+        RandomAccessFile blob = new RandomAccessFile(new File(this.folder.getRoot(), "5.blob"), "rw");
+        blob.seek(4);
+        blob.write(0xff);
+        blob.close();
+
+        assertNull(cache.get(5L));
+        assertEquals(1, cache.corruptCount());
+        assertEquals(0, cache.count());
+        assertFalse(new File(this.folder.getRoot(), "5.blob").exists());
+        cache.close();
+    }
+
+    @Test
+    public void sizeLimit_evictsLeastRecentlyUsed() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 100, 16);
+        cache.put(1L, bytes(40, 1));
+        cache.put(2L, bytes(40, 2));
+        cache.get(1L);
+        cache.put(3L, bytes(40, 3));
+
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+        assertEquals(80, cache.size());
+        assertEquals(1, cache.evictionCount());
+        cache.close();
+    }
+
+    @Test
+    public void oversizePut_dropsTheStaleValue() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 100, 16);
+        cache.put(1L, bytes(40, 1));
+        cache.put(1L, bytes(101, 2));
+
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.size());
+        assertFalse(new File(this.folder.getRoot(), "1.blob").exists());
+        cache.close();
+    }
+
+    @Test
+    public void reopenSmaller_evictsInAccessOrder() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 1024, 16);
+        for (long key = 0; key < 10; key++) {
+            cache.put(key, bytes(10, (int) key));
+        }
+        // touch the even keys, the odd ones become the eldest
+        for (long key = 0; key < 10; key += 2) {
+            cache.get(key);
+        }
+        cache.close();
+
+        cache = DiskAvatarCache.open(this.folder.getRoot(), 50, 16);
+        assertEquals(5, cache.count());
+        assertEquals(5, cache.evictionCount());
+        for (long key = 0; key < 10; key++) {
+            assertEquals(String.valueOf(key), key % 2 == 0, cache.get(key) != null);
+        }
+        cache.close();
+    }
+
+    @Test
+    public void entryLimit_survivesManyReplacements() throws Exception {
+        DiskAvatarCache cache = DiskAvatarCache.open(this.folder.getRoot(), 1 << 20, 4);
+        for (long key = 0; key < 200; key++) {
+            cache.put(key, bytes(4, (int) key));
+        }
+        assertEquals(4, cache.count());
+        for (long key = 196; key < 200; key++) {
+            assertArrayEquals(bytes(4, (int) key), cache.get(key));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void badIndex_isRebuilt() throws Exception {
+        File dir = this.folder.getRoot();
+        DiskAvatarCache cache = DiskAvatarCache.open(dir, 1024, 16);
+        cache.put(9L, bytes(8, 9));
+        cache.close();
+        FileOutputStream out = new FileOutputStream(new File(dir, "index"));
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+
+        cache = DiskAvatarCache.open(dir, 1024, 16);
+        assertEquals(0, cache.count());
+        assertNull(cache.get(9L));
+        assertFalse(new File(dir, "9.blob").exists());
+        cache.close();
+    }
+
+    @Test
+    public void stableHash_isStable() throws Exception {
+        long a = new StableHash().putString("A").putInt(0xffe57373).putBoolean(true).get();
+        long b = new StableHash().putString("A").putInt(0xffe57373).putBoolean(true).get();
+        assertEquals(a, b);
+        assertNotEquals(a, new StableHash().putString("B").putInt(0xffe57373).putBoolean(true).get());
+        assertNotEquals(new StableHash().putString(null).get(), new StableHash().putString("").get());
+        assertEquals(0xbdc1dbd560500dcdL, new StableHash().putString("Alice").putInt(96).get());
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed * 31 + i);
+        }
+        return data;
+    }
+}
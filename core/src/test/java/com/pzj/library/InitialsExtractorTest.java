@@ -0,0 +1,129 @@
+package com.pzj.library;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * InitialsExtractor 单元测试
+ */
+public class InitialsExtractorTest {
+
+    @Test
+    public void firstGrapheme_keepsSurrogatePairs() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, Locale.US, 16);
+        assertEquals("😀", extractor.extract("😀 smile", false));
+        assertEquals("𠀋", extractor.extract("𠀋字", false));
+    }
+
+    @Test
+    public void firstGrapheme_keepsCombiningMarks() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, Locale.US, 16);
+        assertEquals("é", extractor.extract("émile", false));
+        assertEquals("É", extractor.extract("émile", true));
+    }
+
+    @Test
+    public void firstGrapheme_skipsLeadingWhitespace() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, Locale.US, 16);
+        assertEquals("j", extractor.extract("  john", false));
+        assertEquals("", extractor.extract("", true));
+        assertNull(extractor.extract(null, true));
+    }
+
+    @Test
+    public void firstLastWord() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_LAST_WORD, Locale.US, 16);
+        assertEquals("JT", extractor.extract("john ronald tolkien ", true));
+        assertEquals("A", extractor.extract("alice", true));
+    }
+
+    @Test
+    public void cjkSurname() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_CJK_SURNAME, Locale.CHINA, 16);
+        assertEquals("王", extractor.extract("王小明", true));
+        assertEquals("欧阳", extractor.extract("欧阳娜娜", true));
+        assertEquals("JS", extractor.extract("John Smith", true));
+    }
+
+    @Test
+    public void upperCase_usesLocale() throws Exception {
+        InitialsExtractor turkish = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, new Locale("tr", "TR"), 16);
+        assertEquals("İ", turkish.extract("irmak", true));
+        assertEquals("I", InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, Locale.US, 16).extract("irmak", true));
+    }
+
+    @Test
+    public void memo_isBounded() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, Locale.US, 4);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("u", extractor.extract("user" + i, false));
+        }
+        assertEquals(4, extractor.size());
+        extractor.evictAll();
+        assertEquals(0, extractor.size());
+    }
+
+    @Test
+    public void defaultLocale_isResolvedPerCall() throws Exception {
+        Locale original = Locale.getDefault();
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME);
+        try {
+            Locale.setDefault(Locale.US);
+            assertEquals("I", extractor.extract("irmak", true));
+            assertEquals(Locale.US, extractor.getLocale());
+
+            // the memoized result is recomputed after the user switches language
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals("İ", extractor.extract("irmak", true));
+            assertEquals(1, extractor.size());
+        }
+        finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    @Test
+    public void concurrentExtract_staysCorrectAndBounded() throws Exception {
+        final InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_LAST_WORD, Locale.US, 32);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int i = 0; i < 5000; i++) {
+                            int n = i % 100;
+                            if (!("A" + (char) ('A' + n % 26)).equals(extractor.extract("alice " + (char) ('a' + n % 26) + n, true))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertTrue(extractor.size() <= 32);
+    }
+
+    @Test
+    public void noMemo_whenMaxEntriesIsZero() throws Exception {
+        InitialsExtractor extractor = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_GRAPHEME, Locale.US, 0);
+        assertEquals("J", extractor.extract("john", true));
+        assertEquals(0, extractor.size());
+    }
+}
@@ -0,0 +1,454 @@
+package com.pzj.library.headless;
+
+import com.pzj.library.ColorGenerator;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 头像批量导出
+ *
+ * 从迭代器中逐个读取名字，背景色由颜色生成器按名字选取，在线程池中并行渲染，边渲染边通过 NIO 通道写出，不把全部头像留在内存中。
+ * 同时渲染的头像数由{@link Builder#maxInFlight(int)}限制：达到上限时读取名字的线程阻塞，直到有头像写出（背压），
+ * 内存上限约为 maxInFlight 张头像及其 PNG 编码，雪碧图模式再加上正在拼接的几张雪碧图。
+ * 每个输出目录下的 manifest.tsv 记录“文件、x、y、名字”，按完成顺序追加。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class AvatarExporter {
+
+    public static final String MANIFEST = "manifest.tsv";
+
+    private final HeadlessRenderer renderer;
+    private final ColorGenerator   colors;
+    private final int              textColor;
+    private final int              threads;
+    private final int              maxInFlight;
+    private final long             reportIntervalNanos;
+    private final ProgressListener listener;
+
+    private AvatarExporter(Builder builder) {
+        this.renderer = builder.renderer;
+        this.colors = builder.colors;
+        this.textColor = builder.textColor;
+        this.threads = builder.threads;
+        this.maxInFlight = builder.maxInFlight;
+        this.reportIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.reportIntervalMillis);
+        this.listener = builder.listener;
+    }
+
+    public static Builder builder(HeadlessRenderer renderer) {
+        return new Builder(renderer);
+    }
+
+    /**
+     * 每个头像写成一个 PNG 文件，文件名为序号
+     *
+     * @param names
+     * @param dir
+     *
+     * @return 导出统计
+     *
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Report exportToDirectory(Iterator<String> names, final Path dir) throws IOException, InterruptedException {
+        Files.createDirectories(dir);
+        return run(names, dir, new Sink() {
+            @Override
+            public void accept(Export export, long index, String name, BufferedImage image) throws IOException {
+                String file = String.format("%08d.png", index);
+                PngBuffer png = PngBuffer.get();
+                HeadlessRenderer.writePng(image, png);
+                export.bytes.addAndGet(write(dir.resolve(file), png.buffer()));
+                export.files.incrementAndGet();
+                export.manifest(file, 0, 0, name);
+            }
+
+            @Override
+            public void finish(Export export) {
+            }
+        });
+    }
+
+    public Report exportToDirectory(Stream<String> names, Path dir) throws IOException, InterruptedException {
+        return exportToDirectory(names.iterator(), dir);
+    }
+
+    /**
+     * 按序号把头像拼接到 columns x rows 的雪碧图中，一张雪碧图拼满后立即写出，最后一张可能不满
+     *
+     * @param names
+     * @param dir
+     * @param columns
+     * @param rows
+     *
+     * @return 导出统计
+     *
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Report exportToSpriteSheets(Iterator<String> names, final Path dir, final int columns, final int rows) throws IOException, InterruptedException {
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("columns and rows must be > 0");
+        }
+        Files.createDirectories(dir);
+        final int cells = columns * rows;
+        final int cellWidth = this.renderer.getWidth();
+        final int cellHeight = this.renderer.getHeight();
+        final ConcurrentHashMap<Long, Sheet> sheets = new ConcurrentHashMap<Long, Sheet>();
+        return run(names, dir, new Sink() {
+            @Override
+            public void accept(Export export, long index, String name, BufferedImage image) throws IOException {
+                long sheetIndex = index / cells;
+                int cell = (int) (index % cells);
+                int x = (cell % columns) * cellWidth;
+                int y = (cell / columns) * cellHeight;
+                Sheet sheet = sheets.get(sheetIndex);
+                if (sheet == null) {
+                    Sheet created = new Sheet(sheetIndex, columns * cellWidth, rows * cellHeight);
+                    sheet = sheets.putIfAbsent(sheetIndex, created);
+                    if (sheet == null) {
+                        sheet = created;
+                    }
+                }
+                boolean full;
+                synchronized (sheet) {
+                    sheet.image.getRaster().setRect(x, y, image.getRaster());
+                    full = ++sheet.count == cells;
+                }
+                export.manifest(sheet.file, x, y, name);
+                if (full) {
+                    sheets.remove(sheetIndex);
+                    writeSheet(export, dir, sheet);
+                }
+            }
+
+            @Override
+            public void finish(Export export) throws IOException {
+                // only the last, partially filled sheet is left
+                for (Sheet sheet : sheets.values()) {
+                    writeSheet(export, dir, sheet);
+                }
+                sheets.clear();
+            }
+        });
+    }
+
+    public Report exportToSpriteSheets(Stream<String> names, Path dir, int columns, int rows) throws IOException, InterruptedException {
+        return exportToSpriteSheets(names.iterator(), dir, columns, rows);
+    }
+
+    private static void writeSheet(Export export, Path dir, Sheet sheet) throws IOException {
+        PngBuffer png = PngBuffer.get();
+        synchronized (sheet) {
+            HeadlessRenderer.writePng(sheet.image, png);
+        }
+        export.bytes.addAndGet(write(dir.resolve(sheet.file), png.buffer()));
+        export.files.incrementAndGet();
+    }
+
+    private Report run(Iterator<String> names, Path dir, final Sink sink) throws IOException, InterruptedException {
+        final Export export = new Export(dir.resolve(MANIFEST));
+        final Semaphore inFlight = new Semaphore(this.maxInFlight);
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "AvatarExporter #" + this.count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long lastReport = export.start;
+        long index = 0;
+        try {
+            while (names.hasNext() && export.failure.get() == null) {
+                final String name = names.next();
+                final long i = index++;
+
+                // backpressure: wait until one of the in-flight avatars has been written
+                inFlight.acquire();
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (export.failure.get() == null) {
+                                BufferedImage image = AvatarExporter.this.renderer.render(name, AvatarExporter.this.textColor, AvatarExporter.this.colors.getColor(name));
+                                sink.accept(export, i, name, image);
+                                export.count.incrementAndGet();
+                            }
+                        }
+                        catch (Throwable t) {
+                            export.failure.compareAndSet(null, t);
+                        }
+                        finally {
+                            inFlight.release();
+                        }
+                    }
+                });
+
+                if (this.listener != null && System.nanoTime() - lastReport >= this.reportIntervalNanos) {
+                    lastReport = System.nanoTime();
+                    this.listener.onProgress(export.report());
+                }
+            }
+
+            // wait for everything in flight
+            inFlight.acquire(this.maxInFlight);
+            inFlight.release(this.maxInFlight);
+            if (export.failure.get() == null) {
+                sink.finish(export);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+            export.close();
+        }
+
+        Throwable failure = export.failure.get();
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            throw new IOException("export failed", failure);
+        }
+        Report report = export.report();
+        if (this.listener != null) {
+            this.listener.onProgress(report);
+        }
+        return report;
+    }
+
+    private static long write(Path file, ByteBuffer buffer) throws IOException {
+        long written = 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+        }
+        finally {
+            channel.close();
+        }
+        return written;
+    }
+
+    /**
+     * 渲染结果的去向
+     */
+    private interface Sink {
+
+        void accept(Export export, long index, String name, BufferedImage image) throws IOException;
+
+        void finish(Export export) throws IOException;
+    }
+
+    /**
+     * 一次导出的状态
+     */
+    private static final class Export {
+
+        final long                       start   = System.nanoTime();
+        final AtomicLong                 count   = new AtomicLong();
+        final AtomicLong                 files   = new AtomicLong();
+        final AtomicLong                 bytes   = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final FileChannel                manifest;
+
+        Export(Path manifest) throws IOException {
+            this.manifest = FileChannel.open(manifest, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void manifest(String file, int x, int y, String name) throws IOException {
+            ByteBuffer line = ByteBuffer.wrap((file + '\t' + x + '\t' + y + '\t' + name + '\n').getBytes(StandardCharsets.UTF_8));
+            synchronized (this.manifest) {
+                while (line.hasRemaining()) {
+                    this.manifest.write(line);
+                }
+            }
+        }
+
+        Report report() {
+            return new Report(this.count.get(), this.files.get(), this.bytes.get(), System.nanoTime() - this.start);
+        }
+
+        void close() throws IOException {
+            this.manifest.close();
+        }
+    }
+
+    /**
+     * 正在拼接的雪碧图
+     */
+    private static final class Sheet {
+
+        final String        file;
+        final BufferedImage image;
+        int                 count;
+
+        Sheet(long index, int width, int height) {
+            this.file = String.format("sheet-%05d.png", index);
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+    }
+
+    /**
+     * 每个线程复用的 PNG 编码缓冲，直接包装为 ByteBuffer 写出，不再复制
+     */
+    private static final class PngBuffer extends ByteArrayOutputStream {
+
+        private static final ThreadLocal<PngBuffer> sBuffers = new ThreadLocal<PngBuffer>() {
+            @Override
+            protected PngBuffer initialValue() {
+                return new PngBuffer();
+            }
+        };
+
+        static PngBuffer get() {
+            PngBuffer buffer = sBuffers.get();
+            buffer.reset();
+            return buffer;
+        }
+
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(this.buf, 0, this.count);
+        }
+    }
+
+    /**
+     * 进度回调，在读取名字的线程中调用
+     */
+    public interface ProgressListener {
+        void onProgress(Report report);
+    }
+
+    /**
+     * 导出统计
+     */
+    public static final class Report {
+
+        private final long count;
+        private final long files;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        Report(long count, long files, long bytes, long elapsedNanos) {
+            this.count = count;
+            this.files = files;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * 已写出的头像数
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getFiles() {
+            return this.files;
+        }
+
+        public long getBytes() {
+            return this.bytes;
+        }
+
+        public long getElapsedNanos() {
+            return this.elapsedNanos;
+        }
+
+        public double getAvatarsPerSecond() {
+            return this.elapsedNanos > 0 ? this.count * 1e9 / this.elapsedNanos : 0;
+        }
+
+        public double getMegabytesPerSecond() {
+            return this.elapsedNanos > 0 ? this.bytes * 1e9 / this.elapsedNanos / (1024 * 1024) : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Report[avatars=%d,files=%d,bytes=%d,elapsed=%dms,%.1f avatars/s,%.2f MB/s]", this.count, this.files, this.bytes, TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos), getAvatarsPerSecond(), getMegabytesPerSecond());
+        }
+    }
+
+    public static final class Builder {
+
+        private final HeadlessRenderer renderer;
+
+        private ColorGenerator   colors;
+        private int              textColor;
+        private int              threads;
+        private int              maxInFlight;
+        private long             reportIntervalMillis;
+        private ProgressListener listener;
+
+        private Builder(HeadlessRenderer renderer) {
+            this.renderer = renderer;
+            this.colors = ColorGenerator.MATERIAL;
+            this.textColor = 0xffffffff;
+            this.threads = Runtime.getRuntime().availableProcessors();
+            this.maxInFlight = this.threads * 4;
+            this.reportIntervalMillis = 1000;
+        }
+
+        public Builder colors(ColorGenerator colors) {
+            this.colors = colors;
+            return this;
+        }
+
+        public Builder textColor(int color) {
+            this.textColor = color;
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * 同时渲染、编码中的头像数上限，决定内存上限
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * 每隔 intervalMillis 回调一次进度，导出结束时再回调一次
+         */
+        public Builder progress(ProgressListener listener, long intervalMillis) {
+            this.listener = listener;
+            this.reportIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        public AvatarExporter build() {
+            if (this.threads <= 0 || this.maxInFlight <= 0) {
+                throw new IllegalArgumentException("threads and maxInFlight must be > 0");
+            }
+            return new AvatarExporter(this);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.pzj.library.headless;
+
+import com.pzj.library.AvatarLayout;
+import com.pzj.library.ColorGenerator;
+import com.pzj.library.InitialsExtractor;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * 无界面头像渲染器
+ *
+ * 在 JVM 上用 Java2D 离屏绘制与 TextDrawable 相同布局的头像，不需要显示设备，可在服务器上生成邮件、网页用的头像。
+ * 渲染器创建后不可变，多个线程可同时调用{@link #render(String, int, int)}，每次渲染使用自己的图像及 Graphics2D。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class HeadlessRenderer {
+
+    private static final float FIT_REFERENCE_SIZE = 100f;
+
+    static {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+    }
+
+    private final int               width;
+    private final int               height;
+    private final int               borderThickness;
+    private final int               fontSize;
+    private final boolean           autoFit;
+    private final boolean           toUpperCase;
+    private final int               shapeType;
+    private final float             radius;
+    private final Font              font;
+    private final InitialsExtractor initials;
+
+    // fonts derived per text size, deriveFont() is not cheap
+    private final ConcurrentHashMap<Float, Font> fonts = new ConcurrentHashMap<Float, Font>();
+
+    // auto-fit font size per text, shape and size are fixed per renderer
+    private final ConcurrentHashMap<String, Float> fitSizes = new ConcurrentHashMap<String, Float>();
+
+    private HeadlessRenderer(Builder builder) {
+        this.width = builder.width;
+        this.height = builder.height;
+        this.borderThickness = builder.borderThickness;
+        this.fontSize = builder.fontSize;
+        this.autoFit = builder.autoFit;
+        this.toUpperCase = builder.toUpperCase;
+        this.shapeType = builder.shapeType;
+        this.radius = builder.radius;
+        this.font = new Font(builder.fontFamily, builder.isBold ? Font.BOLD : Font.PLAIN, 1);
+        this.initials = builder.initials;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 渲染一个头像
+     *
+     * @param text      文本，按配置的规则提取首字母
+     * @param textColor 文本颜色
+     * @param bgColor   背景色
+     *
+     * @return ARGB 图像
+     */
+    public BufferedImage render(String text, int textColor, int bgColor) {
+        BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            AvatarLayout layout = new AvatarLayout();
+            layout.layout(0, 0, this.width, this.height, this.width, this.height, this.borderThickness, this.fontSize);
+            String initials = this.initials.extract(text, this.toUpperCase);
+            float[] metrics = new float[2];
+            if (this.autoFit) {
+                layout.setTextSize(fitTextSize(initials, layout.getTextSize(), g.getFontRenderContext(), metrics));
+            }
+            Font font = font(layout.getTextSize());
+            Java2DPainter painter = new Java2DPainter(g, font);
+            Java2DPainter.fontMetrics(font, g.getFontRenderContext(), metrics);
+            layout.setFontMetrics(metrics[0], metrics[1]);
+            layout.paint(painter, initials, this.shapeType, this.radius, bgColor, this.borderThickness, textColor, 0, 0, this.width, this.height);
+        }
+        finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * 在线程池中并行渲染，背景色由颜色生成器按文本选取
+     *
+     * @param texts
+     * @param colors
+     * @param textColor
+     * @param executor
+     *
+     * @return 与 texts 顺序相同的图像
+     *
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public List<BufferedImage> renderAll(List<String> texts, final ColorGenerator colors, final int textColor, ExecutorService executor) throws InterruptedException, ExecutionException {
+        List<Future<BufferedImage>> futures = new ArrayList<Future<BufferedImage>>(texts.size());
+        for (final String text : texts) {
+            futures.add(executor.submit(new Callable<BufferedImage>() {
+                @Override
+                public BufferedImage call() throws Exception {
+                    return render(text, textColor, colors.getColor(text));
+                }
+            }));
+        }
+        List<BufferedImage> images = new ArrayList<BufferedImage>(texts.size());
+        for (Future<BufferedImage> future : futures) {
+            images.add(future.get());
+        }
+        return images;
+    }
+
+    /**
+     * 以 PNG 格式写出图像
+     *
+     * @param image
+     * @param out
+     *
+     * @throws IOException
+     */
+    public static void writePng(BufferedImage image, OutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        if (!writers.hasNext()) {
+            throw new IOException("no png writer");
+        }
+        // write through memory, ImageIO would otherwise buffer through a temp file
+        ImageWriter writer = writers.next();
+        ImageOutputStream stream = new MemoryCacheImageOutputStream(out);
+        try {
+            writer.setOutput(stream);
+            writer.write(image);
+        }
+        finally {
+            writer.dispose();
+            stream.close();
+        }
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * 自动适配的字号，每个文本只测量一次
+     */
+    private float fitTextSize(String text, float maxSize, FontRenderContext frc, float[] metrics) {
+        if (text.isEmpty()) {
+            return maxSize;
+        }
+        Float size = this.fitSizes.get(text);
+        if (size == null) {
+            Font font = font(FIT_REFERENCE_SIZE);
+            Java2DPainter.fontMetrics(font, frc, metrics);
+            float widthPerPx = (float) font.getStringBounds(text, frc).getWidth() / FIT_REFERENCE_SIZE;
+            float heightPerPx = (metrics[1] - metrics[0]) / FIT_REFERENCE_SIZE;
+            size = AvatarLayout.fitTextSize(this.shapeType, this.radius, this.width, this.height, this.borderThickness, maxSize, widthPerPx, heightPerPx);
+            this.fitSizes.putIfAbsent(text, size);
+        }
+        return size;
+    }
+
+    private Font font(float size) {
+        Font font = this.fonts.get(size);
+        if (font == null) {
+            font = this.font.deriveFont(size);
+            Font prev = this.fonts.putIfAbsent(size, font);
+            if (prev != null) {
+                font = prev;
+            }
+        }
+        return font;
+    }
+
+    /**
+     * 配置与 TextDrawable.Builder 对应，字体用 Java2D 的字体族名
+     */
+    public static final class Builder {
+
+        private int               width;
+        private int               height;
+        private int               borderThickness;
+        private int               fontSize;
+        private boolean           autoFit;
+        private boolean           isBold;
+        private boolean           toUpperCase;
+        private int               shapeType;
+        private float             radius;
+        private String            fontFamily;
+        private InitialsExtractor initials;
+
+        private Builder() {
+            this.width = 96;
+            this.height = 96;
+            this.borderThickness = 0;
+            this.fontSize = -1;
+            this.isBold = false;
+            this.toUpperCase = false;
+            this.shapeType = AvatarLayout.SHAPE_RECT;
+            this.fontFamily = Font.SANS_SERIF;
+            this.initials = InitialsExtractor.DEFAULT;
+        }
+
+        public Builder width(int width) {
+            this.width = width;
+            return this;
+        }
+
+        public Builder height(int height) {
+            this.height = height;
+            return this;
+        }
+
+        public Builder withBorder(int thickness) {
+            this.borderThickness = thickness;
+            return this;
+        }
+
+        public Builder fontFamily(String family) {
+            this.fontFamily = family;
+            return this;
+        }
+
+        public Builder fontSize(int size) {
+            this.fontSize = size;
+            return this;
+        }
+
+        /**
+         * 自动缩小字号，使文本完整显示在形状内，与 TextDrawable 的 autoFit 相同
+         */
+        public Builder autoFit() {
+            this.autoFit = true;
+            return this;
+        }
+
+        public Builder bold() {
+            this.isBold = true;
+            return this;
+        }
+
+        public Builder toUpperCase() {
+            this.toUpperCase = true;
+            return this;
+        }
+
+        public Builder initials(InitialsExtractor initials) {
+            this.initials = initials;
+            return this;
+        }
+
+        public Builder rect() {
+            this.shapeType = AvatarLayout.SHAPE_RECT;
+            return this;
+        }
+
+        public Builder round() {
+            this.shapeType = AvatarLayout.SHAPE_ROUND;
+            return this;
+        }
+
+        public Builder roundRect(int radius) {
+            this.radius = radius;
+            this.shapeType = AvatarLayout.SHAPE_ROUND_RECT;
+            return this;
+        }
+
+        public HeadlessRenderer build() {
+            if (this.width <= 0 || this.height <= 0) {
+                throw new IllegalArgumentException("width and height must be > 0");
+            }
+            return new HeadlessRenderer(this);
+        }
+    }
+}
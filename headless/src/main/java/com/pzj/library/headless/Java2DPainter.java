@@ -0,0 +1,90 @@
+package com.pzj.library.headless;
+
+import com.pzj.library.AvatarLayout;
+import com.pzj.library.AvatarPainter;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+
+/**
+ * Java2D 绘制实现
+ *
+ * 与 Android 端的画笔设置对应：背景及文本抗锯齿，边框不抗锯齿；文本按水平中心对齐。
+ * 字体由调用方按文本大小派生后传入。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+final class Java2DPainter implements AvatarPainter {
+
+    private final Graphics2D g;
+    private final Font       font;
+
+    Java2DPainter(Graphics2D g, Font font) {
+        this.g = g;
+        this.font = font;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    /**
+     * 指定字号下的字体度量，按 Android 的约定 ascent 为负数
+     *
+     * @param font
+     * @param frc
+     * @param out  [ascent, descent]
+     */
+    static void fontMetrics(Font font, FontRenderContext frc, float[] out) {
+        LineMetrics metrics = font.getLineMetrics("A", frc);
+        out[0] = -metrics.getAscent();
+        out[1] = metrics.getDescent();
+    }
+
+    @Override
+    public void drawShape(int shapeType, float radius, int left, int top, int right, int bottom, int color) {
+        this.g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        this.g.setColor(new Color(color, true));
+        this.g.fill(shape(shapeType, radius, left, top, right, bottom));
+    }
+
+    @Override
+    public void drawBorder(int shapeType, float radius, float left, float top, float right, float bottom, float thickness, int color) {
+        this.g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        this.g.setColor(new Color(color, true));
+        this.g.setStroke(new BasicStroke(thickness));
+        this.g.draw(shape(shapeType, radius, left, top, right, bottom));
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float textSize, int color) {
+        this.g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        this.g.setColor(new Color(color, true));
+        this.g.setFont(this.font);
+        GlyphVector glyphs = this.font.createGlyphVector(this.g.getFontRenderContext(), text);
+        float advance = (float) glyphs.getLogicalBounds().getWidth();
+        this.g.drawGlyphVector(glyphs, x - advance / 2, y);
+    }
+
+    private static Shape shape(int shapeType, float radius, float left, float top, float right, float bottom) {
+        switch (shapeType) {
+            case AvatarLayout.SHAPE_ROUND:
+                return new Ellipse2D.Float(left, top, right - left, bottom - top);
+            case AvatarLayout.SHAPE_ROUND_RECT:
+                // Java2D takes the arc diameter, Android the corner radius
+                return new RoundRectangle2D.Float(left, top, right - left, bottom - top, radius * 2, radius * 2);
+            default:
+                return new Rectangle2D.Float(left, top, right - left, bottom - top);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pzj.library.headless;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * AvatarExporter 单元测试
+ */
+public class AvatarExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final HeadlessRenderer renderer = HeadlessRenderer.builder().width(16).height(16).build();
+
+    @Test
+    public void exportToDirectory_writesOneFilePerName() throws Exception {
+        Path dir = this.folder.getRoot().toPath().resolve("avatars");
+        AvatarExporter exporter = AvatarExporter.builder(this.renderer).threads(3).maxInFlight(2).build();
+        AvatarExporter.Report report = exporter.exportToDirectory(names(25), dir);
+
+        assertEquals(25, report.getCount());
+        assertEquals(25, report.getFiles());
+        assertTrue(report.getBytes() > 0);
+        assertTrue(Files.exists(dir.resolve("00000024.png")));
+        assertEquals(25, Files.readAllLines(dir.resolve(AvatarExporter.MANIFEST), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void exportToSpriteSheets_packsCells() throws Exception {
+        Path dir = this.folder.getRoot().toPath();
+        AvatarExporter exporter = AvatarExporter.builder(this.renderer).threads(4).maxInFlight(3).build();
+        AvatarExporter.Report report = exporter.exportToSpriteSheets(names(10), dir, 2, 2);
+
+        assertEquals(10, report.getCount());
+        assertEquals(3, report.getFiles());
+        BufferedImage last = ImageIO.read(new File(dir.toFile(), "sheet-00002.png"));
+        assertEquals(32, last.getWidth());
+        assertEquals(32, last.getHeight());
+        assertEquals(0xff, last.getRGB(16, 0) >>> 24);
+        assertEquals(0, last.getRGB(0, 16) >>> 24);
+    }
+
+    @Test
+    public void export_reportsProgress() throws Exception {
+        final AtomicInteger reports = new AtomicInteger();
+        AvatarExporter exporter = AvatarExporter.builder(this.renderer).progress(new AvatarExporter.ProgressListener() {
+            @Override
+            public void onProgress(AvatarExporter.Report report) {
+                reports.incrementAndGet();
+            }
+        }, 0).build();
+        exporter.exportToDirectory(names(5), this.folder.getRoot().toPath());
+        assertTrue(reports.get() >= 1);
+    }
+
+    private static Iterator<String> names(int count) {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            names.add("user" + i);
+        }
+        return names.iterator();
+    }
+}
@@ -0,0 +1,98 @@
+package com.pzj.library.headless;
+
+import com.pzj.library.ColorGenerator;
+import com.pzj.library.InitialsExtractor;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * HeadlessRenderer 单元测试
+ */
+public class HeadlessRendererTest {
+
+    private static final int BG = 0xffe57373;
+
+    @Test
+    public void render_rect_fillsBackground() throws Exception {
+        BufferedImage image = HeadlessRenderer.builder().width(64).height(48).build().render("A", 0xffffffff, BG);
+        assertEquals(64, image.getWidth());
+        assertEquals(48, image.getHeight());
+        assertEquals(BG, image.getRGB(0, 0));
+        assertEquals(BG, image.getRGB(63, 47));
+    }
+
+    @Test
+    public void render_round_leavesCornersTransparent() throws Exception {
+        BufferedImage image = HeadlessRenderer.builder().round().build().render("A", 0xffffffff, BG);
+        assertEquals(0, image.getRGB(0, 0) >>> 24);
+        assertEquals(BG, image.getRGB(48, 4));
+    }
+
+    @Test
+    public void render_drawsTextNearCenter() throws Exception {
+        BufferedImage image = HeadlessRenderer.builder().width(100).height(100).fontSize(60).bold().build().render("W", 0xffffffff, BG);
+        int textPixels = 0;
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                if (image.getRGB(x, y) != BG) {
+                    assertTrue(x > 10 && x < 90 && y > 10 && y < 90);
+                    textPixels++;
+                }
+            }
+        }
+        assertTrue(textPixels > 0);
+    }
+
+    @Test
+    public void render_autoFit_keepsTextInsideCircle() throws Exception {
+        InitialsExtractor initials = InitialsExtractor.create(InitialsExtractor.RULE_FIRST_LAST_WORD);
+        BufferedImage image = HeadlessRenderer.builder().width(100).height(100).fontSize(60).bold().initials(initials).round().autoFit().build().render("Wide World", 0xffffffff, BG);
+        int textPixels = 0;
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                int rgb = image.getRGB(x, y);
+                if ((rgb >>> 24) == 0xff && (rgb & 0xff) > 0xc0 && ((rgb >> 8) & 0xff) > 0xc0) {
+                    double dx = x + 0.5 - 50;
+                    double dy = y + 0.5 - 50;
+                    assertTrue(Math.sqrt(dx * dx + dy * dy) < 48);
+                    textPixels++;
+                }
+            }
+        }
+        assertTrue(textPixels > 0);
+    }
+
+    @Test
+    public void renderAll_inParallel_keepsOrder() throws Exception {
+        HeadlessRenderer renderer = HeadlessRenderer.builder().width(32).height(32).build();
+        List<String> texts = Arrays.asList("alice", "bob", "carol", "dave", "eve", "frank");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<BufferedImage> images = renderer.renderAll(texts, ColorGenerator.MATERIAL, 0xffffffff, executor);
+            assertEquals(texts.size(), images.size());
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(ColorGenerator.MATERIAL.getColor(texts.get(i)), images.get(i).getRGB(0, 0));
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void writePng() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HeadlessRenderer.writePng(HeadlessRenderer.builder().build().render("A", 0xffffffff, BG), out);
+        byte[] png = out.toByteArray();
+        assertTrue(png.length > 8);
+        assertEquals((byte) 0x89, png[0]);
+        assertEquals('P', png[1]);
+    }
+}
@@ -0,0 +1,399 @@
+package com.pzj.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.widget.ImageView;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * RecyclerView 头像绑定器
+ *
+ * 在 onBindViewHolder 中调用{@link #bind(ImageView, String, int)}：名字及调色板下标与视图上次绑定的相同时直接跳过，
+ * 否则从{@link TextDrawableFactory}获取共享状态的图像。调用{@link #attach(RecyclerView, Source)}后，
+ * 滚动时在主线程空闲时间（{@link MessageQueue.IdleHandler}）为即将出现的位置预先创建共享状态；
+ * 描述配置了{@link BitmapCache}时主线程只查内存缓存（不计入命中统计），未命中的描述交给{@link TextDrawableRenderer}在后台光栅化（及读写磁盘），
+ * 真正绑定时只剩命中缓存。预取的位图尺寸取自头像视图布局后图像的边界（不含内边距）：{@link #bind}会记录，
+ * 自己设置图像（如包装为{@link CheckableTextDrawable}）时在创建 ViewHolder 时调用{@link #trackItemSize(ImageView)}。
+ *
+ * 没有使用 RecyclerView 自带的预取（GapWorker 及 LayoutManager.collectAdjacentPrefetchPositions）：它只在 API 21 以上运行，
+ * 需要替换应用的布局管理器，并且预取的是整个条目的绑定；这里只预热共享状态及位图，可与它同时使用。
+ *
+ * 配合 DiffUtil 时，只有头像变化的条目才需要{@link #PAYLOAD_AVATAR}，其他局部刷新用{@link #needsAvatarBind(List)}跳过头像。
+ * 绑定器只能在主线程使用。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class AvatarBinder {
+
+    /**
+     * DiffUtil 的局部刷新标记：头像（名字或颜色）发生变化
+     */
+    public static final Object PAYLOAD_AVATAR = new Object();
+
+    public static final int DEFAULT_PREFETCH_COUNT = 8;
+
+    // keep each idle callback well inside one frame
+    private static final long IDLE_BUDGET_NANOS = 4000000L;
+
+    private final TextDrawableTemplate mTemplate;
+    private final TextDrawableFactory  mFactory;
+    private final PrefetchScheduler    mScheduler = new PrefetchScheduler();
+    private final SizeTracker          mSizeTracker = new SizeTracker();
+
+    // keys handed to the renderer and not rendered yet
+    private final HashSet<BitmapCache.Key> mRendering = new HashSet<BitmapCache.Key>();
+
+    // batches not delivered yet
+    private final ArrayList<TextDrawableRenderer.Batch> mBatches = new ArrayList<TextDrawableRenderer.Batch>();
+
+    private TextDrawableRenderer mRenderer;
+    private boolean              mOwnsRenderer;
+
+    private int mPrefetchCount = DEFAULT_PREFETCH_COUNT;
+
+    // size of the last bound view, used to pre-render bitmaps
+    private int mItemWidth;
+    private int mItemHeight;
+
+    /**
+     * 头像数据来源，按适配器位置提供名字及调色板下标
+     */
+    public interface Source {
+
+        String getAvatarName(int position);
+
+        int getAvatarPaletteIndex(int position);
+    }
+
+    /**
+     * 创建绑定器
+     *
+     * @param template 文本图像模板，需配置调色板
+     * @param factory  共享状态工厂，可与其他绑定器共享
+     *
+     * @return
+     */
+    public static AvatarBinder create(TextDrawableTemplate template, TextDrawableFactory factory) {
+        return new AvatarBinder(template, factory, null);
+    }
+
+    /**
+     * 创建绑定器，预取的位图由指定的预渲染器在后台光栅化
+     *
+     * @param template 文本图像模板，需配置调色板
+     * @param factory  共享状态工厂，可与其他绑定器共享
+     * @param renderer 预渲染器，可与其他绑定器共享
+     *
+     * @return
+     */
+    public static AvatarBinder create(TextDrawableTemplate template, TextDrawableFactory factory, TextDrawableRenderer renderer) {
+        return new AvatarBinder(template, factory, renderer);
+    }
+
+    private AvatarBinder(TextDrawableTemplate template, TextDrawableFactory factory, TextDrawableRenderer renderer) {
+        this.mTemplate = template;
+        this.mFactory = factory;
+        this.mRenderer = renderer;
+    }
+
+    /**
+     * 预取的位置个数
+     *
+     * @param count
+     */
+    public void setPrefetchCount(int count) {
+        this.mPrefetchCount = count;
+    }
+
+    /**
+     * 获取头像，相同描述的头像共享状态
+     *
+     * @param name
+     * @param paletteIndex
+     *
+     * @return
+     */
+    public TextDrawable obtain(String name, int paletteIndex) {
+        return this.mFactory.obtain(this.mTemplate.spec(name, paletteIndex));
+    }
+
+    /**
+     * 绑定头像，与视图上次绑定的名字及调色板下标相同时跳过
+     *
+     * @param view
+     * @param name
+     * @param paletteIndex
+     *
+     * @return 是否重新设置了图像
+     */
+    public boolean bind(ImageView view, String name, int paletteIndex) {
+        trackItemSize(view);
+
+        BindState state = (BindState) view.getTag(R.id.avatar_binder_state);
+        if (state == null) {
+            state = new BindState();
+            view.setTag(R.id.avatar_binder_state, state);
+        }
+        else if (state.paletteIndex == paletteIndex && (state.name == null ? name == null : state.name.equals(name))) {
+            return false;
+        }
+        state.name = name;
+        state.paletteIndex = paletteIndex;
+        view.setImageDrawable(obtain(name, paletteIndex));
+        return true;
+    }
+
+    /**
+     * 记录头像视图的尺寸，之后每次布局都更新，预取的位图按这个尺寸光栅化。{@link #bind}会自动调用，
+     * 不通过{@link #bind}设置图像时在创建 ViewHolder 时调用一次
+     *
+     * @param view 头像视图
+     */
+    public void trackItemSize(ImageView view) {
+        rememberItemSize(view);
+        view.removeOnLayoutChangeListener(this.mSizeTracker);
+        view.addOnLayoutChangeListener(this.mSizeTracker);
+    }
+
+    /**
+     * 记录条目中头像的尺寸：优先取视图中已布局图像的边界，否则取视图去掉内边距后的尺寸
+     */
+    private void rememberItemSize(ImageView view) {
+        Drawable current = view.getDrawable();
+        if (current != null) {
+            Rect bounds = current.getBounds();
+            if (bounds.width() > 0 && bounds.height() > 0) {
+                this.mItemWidth = bounds.width();
+                this.mItemHeight = bounds.height();
+                return;
+            }
+        }
+        int width = view.getWidth() - view.getPaddingLeft() - view.getPaddingRight();
+        int height = view.getHeight() - view.getPaddingTop() - view.getPaddingBottom();
+        if (width > 0 && height > 0) {
+            this.mItemWidth = width;
+            this.mItemHeight = height;
+        }
+    }
+
+    /**
+     * 忘记视图上次绑定的头像，下次{@link #bind}时一定重新设置
+     *
+     * @param view
+     */
+    public void unbind(ImageView view) {
+        view.setTag(R.id.avatar_binder_state, null);
+    }
+
+    /**
+     * 局部刷新时是否需要重新绑定头像：完整绑定或包含{@link #PAYLOAD_AVATAR}
+     *
+     * @param payloads onBindViewHolder 的 payloads
+     *
+     * @return
+     */
+    public static boolean needsAvatarBind(List<Object> payloads) {
+        return payloads.isEmpty() || payloads.contains(PAYLOAD_AVATAR);
+    }
+
+    /**
+     * 监听列表滚动，空闲时预取即将出现的位置，布局管理器需为 LinearLayoutManager（含 GridLayoutManager）
+     *
+     * @param recyclerView
+     * @param source
+     */
+    public void attach(RecyclerView recyclerView, Source source) {
+        detach();
+        this.mScheduler.recyclerView = recyclerView;
+        this.mScheduler.source = source;
+        recyclerView.addOnScrollListener(this.mScheduler);
+    }
+
+    /**
+     * 停止预取，取消尚未完成的后台光栅化；绑定器自己创建的预渲染器随之关闭
+     */
+    public void detach() {
+        PrefetchScheduler scheduler = this.mScheduler;
+        if (scheduler.recyclerView != null) {
+            scheduler.recyclerView.removeOnScrollListener(scheduler);
+            scheduler.recyclerView = null;
+            scheduler.source = null;
+        }
+        scheduler.cancel();
+        for (int i = 0, size = this.mBatches.size(); i < size; i++) {
+            this.mBatches.get(i).cancel();
+        }
+        this.mBatches.clear();
+        this.mRendering.clear();
+        if (this.mOwnsRenderer) {
+            this.mRenderer.shutdown();
+            this.mRenderer = null;
+            this.mOwnsRenderer = false;
+        }
+    }
+
+    /**
+     * 预取一个位置：创建共享状态；配置了位图缓存、已知条目尺寸且内存缓存未命中时，把描述放入待光栅化列表
+     */
+    private void prefetch(Source source, int position, List<TextDrawableSpec> toRender) {
+        TextDrawableSpec spec = this.mTemplate.spec(source.getAvatarName(position), source.getAvatarPaletteIndex(position));
+        this.mFactory.intern(spec);
+        BitmapCache cache = spec.getCache();
+        if (cache == null || this.mItemWidth <= 0 || this.mItemHeight <= 0) {
+            return;
+        }
+        BitmapCache.Key key = new BitmapCache.Key(spec, this.mItemWidth, this.mItemHeight);
+        if (!this.mRendering.contains(key) && !cache.contains(key)) {
+            this.mRendering.add(key);
+            toRender.add(spec);
+        }
+    }
+
+    /**
+     * 把待光栅化的描述交给预渲染器，完成后在主线程移出进行中的键
+     */
+    private void render(List<TextDrawableSpec> specs) {
+        if (this.mRenderer == null) {
+            this.mRenderer = TextDrawableRenderer.create(1);
+            this.mOwnsRenderer = true;
+        }
+        RenderCallback callback = new RenderCallback(new ArrayList<TextDrawableSpec>(specs), this.mItemWidth, this.mItemHeight);
+        callback.batch = this.mRenderer.render(callback.specs, callback.width, callback.height, callback);
+        this.mBatches.add(callback.batch);
+    }
+
+    /**
+     * 批次完成时（主线程）移出进行中的键和批次；渲染失败的描述同样移出，之后还会再次预取
+     */
+    private final class RenderCallback implements TextDrawableRenderer.Callback {
+
+        private final List<TextDrawableSpec> specs;
+        private final int                    width;
+        private final int                    height;
+
+        private TextDrawableRenderer.Batch batch;
+
+        RenderCallback(List<TextDrawableSpec> specs, int width, int height) {
+            this.specs = specs;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void onRendered(List<Bitmap> bitmaps) {
+            for (int i = 0, size = this.specs.size(); i < size; i++) {
+                mRendering.remove(new BitmapCache.Key(this.specs.get(i), this.width, this.height));
+            }
+            mBatches.remove(this.batch);
+        }
+    }
+
+    /**
+     * 头像视图布局后记录尺寸
+     */
+    private final class SizeTracker implements View.OnLayoutChangeListener {
+
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            rememberItemSize((ImageView) v);
+        }
+    }
+
+    /**
+     * 视图上次绑定的头像
+     */
+    private static final class BindState {
+
+        String name;
+        int    paletteIndex;
+    }
+
+    /**
+     * 滚动时记录预取窗口，主线程空闲时分批预取
+     */
+    private final class PrefetchScheduler extends RecyclerView.OnScrollListener implements MessageQueue.IdleHandler {
+
+        RecyclerView recyclerView;
+        Source       source;
+
+        private final ArrayList<TextDrawableSpec> toRender = new ArrayList<TextDrawableSpec>();
+
+        // next position to prefetch and the end of the window (exclusive), step is +1 or -1
+        private int     next;
+        private int     end;
+        private int     step;
+        private boolean queued;
+
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+            if (!(layoutManager instanceof LinearLayoutManager) || recyclerView.getAdapter() == null || (dx == 0 && dy == 0)) {
+                return;
+            }
+            LinearLayoutManager linear = (LinearLayoutManager) layoutManager;
+            int count = recyclerView.getAdapter().getItemCount();
+            if (dx > 0 || dy > 0) {
+                int last = linear.findLastVisibleItemPosition();
+                if (last < 0) {
+                    return;
+                }
+                this.next = last + 1;
+                this.end = Math.min(count, this.next + mPrefetchCount);
+                this.step = 1;
+            }
+            else {
+                int first = linear.findFirstVisibleItemPosition();
+                if (first < 0) {
+                    return;
+                }
+                this.next = first - 1;
+                this.end = Math.max(-1, this.next - mPrefetchCount);
+                this.step = -1;
+            }
+            if (this.next != this.end && !this.queued) {
+                this.queued = true;
+                Looper.myQueue().addIdleHandler(this);
+            }
+        }
+
+        @Override
+        public boolean queueIdle() {
+            Source source = this.source;
+            if (source == null) {
+                this.queued = false;
+                return false;
+            }
+            long deadline = System.nanoTime() + IDLE_BUDGET_NANOS;
+            while (this.next != this.end) {
+                prefetch(source, this.next, this.toRender);
+                this.next += this.step;
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            if (!this.toRender.isEmpty()) {
+                render(this.toRender);
+                this.toRender.clear();
+            }
+            this.queued = this.next != this.end;
+            return this.queued;
+        }
+
+        void cancel() {
+            this.next = this.end;
+            if (this.queued) {
+                Looper.myQueue().removeIdleHandler(this);
+                this.queued = false;
+            }
+        }
+    }
+}
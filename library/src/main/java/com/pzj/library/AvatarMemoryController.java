@@ -0,0 +1,219 @@
+package com.pzj.library;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 头像内存控制器
+ *
+ * 把{@link ComponentCallbacks2#onTrimMemory(int)}的级别映射为保留比例，依次收缩登记的缓存（位图缓存、纹理图集、共享状态、画笔池及延迟图像），
+ * 并报告每次释放的字节数。压力缓解后回调的级别降低，各缓存的容量随之放宽；但系统不会在回到前台时再回调，
+ * 界面隐藏（TRIM_MEMORY_UI_HIDDEN）后各缓存一直保持收缩，所以调用方需要在回到前台（onStart）时调用{@link #restore()}。
+ *
+ * 画笔池及{@link LazyTextDrawable}是进程级的，只登记在{@link #getDefault()}中，由{@link #install(Context)}向 Application 注册一次；
+ * 各界面把自己的缓存登记到默认控制器，销毁时注销。{@link #create()}创建的控制器只管理自己登记的缓存。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class AvatarMemoryController implements ComponentCallbacks2 {
+
+    private static final AvatarMemoryController DEFAULT    = createDefault();
+    private static final AtomicBoolean          sInstalled = new AtomicBoolean();
+
+    private final CopyOnWriteArrayList<Trimmable> mTrimmables = new CopyOnWriteArrayList<Trimmable>();
+
+    private volatile OnTrimListener mListener;
+    private volatile float          mFraction = 1f;
+    private volatile long           mLastReclaimedBytes;
+    private volatile long           mTotalReclaimedBytes;
+
+    /**
+     * 收缩监听
+     */
+    public interface OnTrimListener {
+
+        /**
+         * @param level          内存级别，{@link #restore()}时为0
+         * @param fraction       保留比例
+         * @param reclaimedBytes 本次释放的字节数
+         */
+        void onTrimmed(int level, float fraction, long reclaimedBytes);
+    }
+
+    /**
+     * 创建内存控制器，只管理之后登记的缓存
+     *
+     * @return
+     */
+    public static AvatarMemoryController create() {
+        return new AvatarMemoryController();
+    }
+
+    /**
+     * 进程级的默认控制器，画笔池及{@link LazyTextDrawable}已登记（每个进程只登记一次）
+     *
+     * @return
+     */
+    public static AvatarMemoryController getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * 向 Application 注册默认控制器，多次调用只注册一次
+     *
+     * @param context
+     *
+     * @return 默认控制器
+     */
+    public static AvatarMemoryController install(Context context) {
+        AvatarMemoryController controller = getDefault();
+        if (sInstalled.compareAndSet(false, true)) {
+            context.getApplicationContext().registerComponentCallbacks(controller);
+        }
+        return controller;
+    }
+
+    private static AvatarMemoryController createDefault() {
+        AvatarMemoryController controller = new AvatarMemoryController();
+        controller.register(new Trimmable() {
+            @Override
+            public long trimToFraction(float fraction) {
+                return PaintPool.trimToFraction(fraction);
+            }
+        });
+        controller.register(new Trimmable() {
+            @Override
+            public long trimToFraction(float fraction) {
+                return LazyTextDrawable.trimToFraction(fraction);
+            }
+        });
+        return controller;
+    }
+
+    private AvatarMemoryController() {
+    }
+
+    /**
+     * 登记缓存，立即按当前保留比例收缩
+     *
+     * @param trimmable
+     */
+    public void register(Trimmable trimmable) {
+        if (this.mTrimmables.addIfAbsent(trimmable) && this.mFraction < 1f) {
+            trimmable.trimToFraction(this.mFraction);
+        }
+    }
+
+    public void unregister(Trimmable trimmable) {
+        this.mTrimmables.remove(trimmable);
+    }
+
+    public void setOnTrimListener(OnTrimListener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * 内存级别对应的保留比例
+     *
+     * 后台级别越高越接近被杀，保留越少；前台运行时的级别只收缩，不清空，避免可见的头像反复光栅化。
+     *
+     * @param level
+     *
+     * @return
+     */
+    public static float fractionFor(int level) {
+        if (level >= TRIM_MEMORY_COMPLETE) {
+            return 0f;
+        }
+        if (level >= TRIM_MEMORY_MODERATE) {
+            return 0.25f;
+        }
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // background & ui hidden, nothing is on screen
+            return 0.5f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            return 0.25f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            return 0.5f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            return 0.75f;
+        }
+        return 1f;
+    }
+
+    /**
+     * 按内存级别收缩
+     *
+     * @param level
+     *
+     * @return 释放的字节数
+     */
+    public long trim(int level) {
+        return trimToFraction(level, fractionFor(level));
+    }
+
+    /**
+     * 恢复所有缓存的最大容量
+     */
+    public void restore() {
+        trimToFraction(0, 1f);
+    }
+
+    private long trimToFraction(int level, float fraction) {
+        this.mFraction = fraction;
+        long reclaimed = 0;
+        for (Trimmable trimmable : this.mTrimmables) {
+            reclaimed += trimmable.trimToFraction(fraction);
+        }
+        this.mLastReclaimedBytes = reclaimed;
+        this.mTotalReclaimedBytes += reclaimed;
+
+        OnTrimListener listener = this.mListener;
+        if (listener != null) {
+            listener.onTrimmed(level, fraction, reclaimed);
+        }
+        return reclaimed;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        trim(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    /**
+     * 当前保留比例
+     */
+    public float getFraction() {
+        return this.mFraction;
+    }
+
+    /**
+     * 最近一次收缩释放的字节数
+     */
+    public long getLastReclaimedBytes() {
+        return this.mLastReclaimedBytes;
+    }
+
+    /**
+     * 累计释放的字节数
+     */
+    public long getTotalReclaimedBytes() {
+        return this.mTotalReclaimedBytes;
+    }
+}
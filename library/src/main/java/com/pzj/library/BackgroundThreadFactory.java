@@ -0,0 +1,32 @@
+package com.pzj.library;
+
+import android.os.Process;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台优先级线程工厂，不与 UI 线程争抢 CPU
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+final class BackgroundThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger mCount = new AtomicInteger(1);
+    private final String        mName;
+
+    BackgroundThreadFactory(String name) {
+        this.mName = name;
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+        return new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                r.run();
+            }
+        }, this.mName + " #" + this.mCount.getAndIncrement());
+    }
+}
@@ -0,0 +1,541 @@
+package com.pzj.library;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.util.LruCache;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文本图像位图缓存
+ *
+ * 按字节数限制大小的LRU缓存，TextDrawable 首次绘制时光栅化为位图，之后直接绘制位图。
+ * 可以在内存缓存之后接一个{@link DiskAvatarCache}：内存未命中时在后台线程读取磁盘（仍未命中时在后台光栅化），
+ * 完成后在主线程 invalidate 等待的图像，绘制时从不访问磁盘；新光栅化的位图在后台线程写入磁盘，进程重启后不必重新光栅化。
+ * 磁盘键由描述及位图尺寸（像素）计算，尺寸已经包含了屏幕密度；
+ * 使用非{@link PaintPool#typeface(String, int)}创建的字体时无法计算稳定的键，只走内存缓存。
+ *
+ * 从 LRU 中淘汰的位图移入软引用层，由 GC 决定何时回收，再次使用时直接放回 LRU；
+ * 作为{@link Trimmable}收缩时，内存压力较大（保留比例低于一半）时软引用层也一并清空。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class BitmapCache implements Trimmable {
+
+    // 2: the key includes the border color
+    private static final int DISK_FORMAT_VERSION = 2;
+
+    private static final float SOFT_TIER_MIN_FRACTION = 0.5f;
+
+    private final LruCache<Key, Bitmap> mCache;
+    // keys in the LRU, so prefetch can probe without touching its counters or order
+    private final Set<Key>              mMemoryKeys = Collections.newSetFromMap(new ConcurrentHashMap<Key, Boolean>());
+    private final DiskAvatarCache       mDiskCache;
+    private final ThreadPoolExecutor    mDiskExecutor;
+    private final Handler               mMainHandler;
+
+    // async loads in flight and the drawables waiting for them, main thread only
+    private final HashMap<Key, ArrayList<WeakReference<Drawable>>> mPending = new HashMap<Key, ArrayList<WeakReference<Drawable>>>();
+
+    // lowest priority tier, bitmaps evicted from the LRU
+    private final HashMap<Key, SoftEntry> mSoftCache = new HashMap<Key, SoftEntry>();
+    private final ReferenceQueue<Bitmap>  mSoftQueue = new ReferenceQueue<Bitmap>();
+
+    private volatile int mLimit;
+
+    /**
+     * 创建位图缓存
+     *
+     * @param maxBytes 缓存的最大字节数
+     *
+     * @return
+     */
+    public static BitmapCache create(int maxBytes) {
+        return new BitmapCache(maxBytes, null);
+    }
+
+    /**
+     * 创建两级位图缓存
+     *
+     * @param maxBytes  内存缓存的最大字节数
+     * @param diskCache 磁盘缓存，可在多个位图缓存间共享
+     *
+     * @return
+     */
+    public static BitmapCache create(int maxBytes, DiskAvatarCache diskCache) {
+        return new BitmapCache(maxBytes, diskCache);
+    }
+
+    private BitmapCache(int maxBytes, DiskAvatarCache diskCache) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes <= 0");
+        }
+        this.mLimit = maxBytes;
+        this.mDiskCache = diskCache;
+        if (diskCache != null) {
+            this.mDiskExecutor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new BackgroundThreadFactory("BitmapCache"));
+            this.mDiskExecutor.allowCoreThreadTimeOut(true);
+            this.mMainHandler = new Handler(Looper.getMainLooper());
+        }
+        else {
+            this.mDiskExecutor = null;
+            this.mMainHandler = null;
+        }
+        this.mCache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue, Bitmap newValue) {
+                if (newValue == null) {
+                    mMemoryKeys.remove(key);
+                }
+                TextDrawableMetrics metrics = TextDrawableMetrics.get();
+                if (metrics != null) {
+                    metrics.onBitmapBytesChanged(-oldValue.getByteCount());
+                }
+                if (evicted) {
+                    putSoft(key, oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * 从内存（LRU 及软引用层）获取位图，不访问磁盘，可在绘制时调用
+     *
+     * @param key
+     *
+     * @return 未命中时返回 null
+     */
+    Bitmap get(Key key) {
+        Bitmap bitmap = this.mCache.get(key);
+        if (bitmap == null) {
+            bitmap = takeSoft(key);
+            if (bitmap != null) {
+                putMemory(key, bitmap);
+            }
+        }
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        if (metrics != null) {
+            if (bitmap != null) {
+                metrics.onCacheHit();
+            }
+            else {
+                metrics.onCacheMiss();
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * 位图是否在内存中（LRU 或仍未回收的软引用层），不计入命中及未命中，不改变最近使用顺序，供预取判断是否需要光栅化
+     *
+     * @param key
+     *
+     * @return
+     */
+    boolean contains(Key key) {
+        if (this.mMemoryKeys.contains(key)) {
+            return true;
+        }
+        synchronized (this.mSoftCache) {
+            SoftEntry entry = this.mSoftCache.get(key);
+            return entry != null && entry.get() != null;
+        }
+    }
+
+    /**
+     * 获取位图：依次查找内存、磁盘，都未命中时按描述光栅化并放入缓存。会阻塞在磁盘 I/O 上，只能在后台线程调用
+     *
+     * @param key
+     *
+     * @return
+     */
+    Bitmap load(Key key) {
+        Bitmap bitmap = get(key);
+        if (bitmap == null && this.mDiskCache != null) {
+            bitmap = readDisk(key);
+            if (bitmap != null) {
+                putMemory(key, bitmap);
+            }
+        }
+        if (bitmap == null) {
+            bitmap = TextDrawable.render(key.spec, key.width, key.height);
+            put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 是否有磁盘缓存：有磁盘缓存时内存未命中应调用{@link #loadAsync}，而不是在绘制时光栅化
+     */
+    boolean isTiered() {
+        return this.mDiskCache != null;
+    }
+
+    /**
+     * 在后台线程{@link #load}，完成后在主线程 invalidate 等待的图像。同一个键同时只加载一次。只能在主线程调用
+     *
+     * @param key
+     * @param waiting 等待位图的图像，可为 null（预取）
+     */
+    void loadAsync(final Key key, Drawable waiting) {
+        ArrayList<WeakReference<Drawable>> waiters = this.mPending.get(key);
+        if (waiters != null) {
+            addWaiter(waiters, waiting);
+            return;
+        }
+        waiters = new ArrayList<WeakReference<Drawable>>(1);
+        addWaiter(waiters, waiting);
+        this.mPending.put(key, waiters);
+        this.mDiskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load(key);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        ArrayList<WeakReference<Drawable>> waiters = mPending.remove(key);
+                        for (int i = 0, size = waiters.size(); i < size; i++) {
+                            Drawable drawable = waiters.get(i).get();
+                            if (drawable != null) {
+                                drawable.invalidateSelf();
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static void addWaiter(ArrayList<WeakReference<Drawable>> waiters, Drawable drawable) {
+        if (drawable == null) {
+            return;
+        }
+        for (int i = 0, size = waiters.size(); i < size; i++) {
+            if (waiters.get(i).get() == drawable) {
+                return;
+            }
+        }
+        waiters.add(new WeakReference<Drawable>(drawable));
+    }
+
+    void put(Key key, Bitmap bitmap) {
+        putMemory(key, bitmap);
+        if (this.mDiskCache != null && key.isPersistable()) {
+            writeDisk(key, bitmap);
+        }
+    }
+
+    private void putMemory(Key key, Bitmap bitmap) {
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        if (metrics != null) {
+            metrics.onBitmapBytesChanged(bitmap.getByteCount());
+        }
+        this.mMemoryKeys.add(key);
+        this.mCache.put(key, bitmap);
+        int limit = this.mLimit;
+        if (limit < this.mCache.maxSize()) {
+            this.mCache.trimToSize(limit);
+        }
+    }
+
+    private void putSoft(Key key, Bitmap bitmap) {
+        synchronized (this.mSoftCache) {
+            purgeSoft();
+            this.mSoftCache.put(key, new SoftEntry(key, bitmap, this.mSoftQueue));
+        }
+    }
+
+    private Bitmap takeSoft(Key key) {
+        synchronized (this.mSoftCache) {
+            SoftEntry entry = this.mSoftCache.remove(key);
+            return entry != null ? entry.get() : null;
+        }
+    }
+
+    /**
+     * 移除已被 GC 回收的软引用
+     */
+    private void purgeSoft() {
+        SoftEntry entry;
+        while ((entry = (SoftEntry) this.mSoftQueue.poll()) != null) {
+            if (this.mSoftCache.get(entry.key) == entry) {
+                this.mSoftCache.remove(entry.key);
+            }
+        }
+    }
+
+    /**
+     * 清空软引用层
+     *
+     * @return 仍未被回收的位图字节数
+     */
+    private long clearSoft() {
+        long bytes = 0;
+        synchronized (this.mSoftCache) {
+            for (SoftEntry entry : this.mSoftCache.values()) {
+                Bitmap bitmap = entry.get();
+                if (bitmap != null) {
+                    bytes += bitmap.getByteCount();
+                }
+                entry.clear();
+            }
+            this.mSoftCache.clear();
+            purgeSoft();
+        }
+        return bytes;
+    }
+
+    /**
+     * 从磁盘读取像素，格式为宽、高及 ARGB_8888 像素
+     *
+     * @param key
+     *
+     * @return 未命中或数据与键不符时返回 null
+     */
+    private Bitmap readDisk(Key key) {
+        if (!key.isPersistable()) {
+            return null;
+        }
+        long diskKey = key.stableKey();
+        byte[] data = this.mDiskCache.get(diskKey);
+        if (data == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length != 8 + key.width() * key.height() * 4 || buffer.getInt() != key.width() || buffer.getInt() != key.height()) {
+            this.mDiskCache.remove(diskKey);
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(key.width(), key.height(), Bitmap.Config.ARGB_8888);
+        bitmap.copyPixelsFromBuffer(buffer);
+        return bitmap;
+    }
+
+    private void writeDisk(final Key key, final Bitmap bitmap) {
+        this.mDiskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (bitmap.isRecycled()) {
+                    return;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(8 + bitmap.getByteCount());
+                buffer.putInt(bitmap.getWidth());
+                buffer.putInt(bitmap.getHeight());
+                bitmap.copyPixelsToBuffer(buffer);
+                try {
+                    BitmapCache.this.mDiskCache.put(key.stableKey(), buffer.array());
+                }
+                catch (IOException e) {
+                    // the disk tier is best effort, the bitmap is still in memory
+                }
+            }
+        });
+    }
+
+    /**
+     * 磁盘缓存，没有时返回 null
+     */
+    public DiskAvatarCache getDiskCache() {
+        return this.mDiskCache;
+    }
+
+    /**
+     * 收缩内存缓存，淘汰的位图进入软引用层，参见{@link Trimmable}
+     *
+     * @param fraction
+     *
+     * @return LRU 中移出的字节数，加上清空软引用层时仍未回收的字节数
+     */
+    @Override
+    public long trimToFraction(float fraction) {
+        int limit = (int) (this.mCache.maxSize() * fraction);
+        this.mLimit = limit;
+        boolean dropSoft = fraction < SOFT_TIER_MIN_FRACTION;
+        long reclaimed = dropSoft ? clearSoft() : 0;
+        long before = this.mCache.size();
+        this.mCache.trimToSize(limit);
+        reclaimed += before - this.mCache.size();
+        if (dropSoft) {
+            // the bitmaps just trimmed went to the soft tier, already counted
+            clearSoft();
+        }
+        return reclaimed;
+    }
+
+    /**
+     * 清空内存缓存及软引用层，磁盘缓存不受影响
+     */
+    public void evictAll() {
+        this.mCache.evictAll();
+        clearSoft();
+    }
+
+    /**
+     * 当前缓存的字节数
+     */
+    public int size() {
+        return this.mCache.size();
+    }
+
+    /**
+     * 软引用层中的位图个数，包括已被回收但尚未清理的
+     */
+    public int softCount() {
+        synchronized (this.mSoftCache) {
+            return this.mSoftCache.size();
+        }
+    }
+
+    /**
+     * 缓存的最大字节数
+     */
+    public int maxSize() {
+        return this.mCache.maxSize();
+    }
+
+    /**
+     * 命中次数
+     */
+    public int hitCount() {
+        return this.mCache.hitCount();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public int missCount() {
+        return this.mCache.missCount();
+    }
+
+    /**
+     * 淘汰次数
+     */
+    public int evictionCount() {
+        return this.mCache.evictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapCache[size=" + size() + ",maxSize=" + maxSize() + ",hits=" + hitCount() + ",misses=" + missCount() + ",evictions=" + evictionCount() + "]";
+    }
+
+    /**
+     * 软引用层的条目，被回收后经引用队列按键移除
+     */
+    private static final class SoftEntry extends SoftReference<Bitmap> {
+
+        final Key key;
+
+        SoftEntry(Key key, Bitmap bitmap, ReferenceQueue<Bitmap> queue) {
+            super(bitmap, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * 缓存键：文本图像描述及位图尺寸
+     */
+    static final class Key {
+
+        private final TextDrawableSpec spec;
+        private final int              width;
+        private final int              height;
+
+        // computed on first use, see stableKey()
+        private String  fontName;
+        private boolean stableKeyComputed;
+        private long    stableKey;
+
+        Key(TextDrawableSpec spec, int width, int height) {
+            this.spec = spec;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * 能否计算跨进程稳定的键：字体需要来自{@link PaintPool}
+         */
+        boolean isPersistable() {
+            return this.spec.getFont() == null || fontName() != null;
+        }
+
+        /**
+         * 跨进程稳定的64位键
+         */
+        synchronized long stableKey() {
+            if (!this.stableKeyComputed) {
+                TextDrawableSpec spec = this.spec;
+                this.stableKey = new StableHash().putInt(DISK_FORMAT_VERSION)
+                        .putString(spec.getText())
+                        .putInt(spec.getTextColor())
+                        .putInt(spec.getBgColor())
+                        .putInt(spec.getBorderColor())
+                        .putInt(spec.getBorderThickness())
+                        .putInt(spec.getWidth())
+                        .putInt(spec.getHeight())
+                        .putInt(spec.getFontSize())
+                        .putBoolean(spec.isBold())
+                        .putBoolean(spec.isAutoFit())
+                        .putString(fontName())
+                        .putInt(spec.getShapeType())
+                        .putFloat(spec.getRadius())
+                        .putInt(this.width)
+                        .putInt(this.height)
+                        .get();
+                this.stableKeyComputed = true;
+            }
+            return this.stableKey;
+        }
+
+        private String fontName() {
+            if (this.fontName == null && this.spec.getFont() != null) {
+                this.fontName = PaintPool.typefaceName(this.spec.getFont());
+            }
+            return this.fontName;
+        }
+
+        int width() {
+            return this.width;
+        }
+
+        int height() {
+            return this.height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return this.width == other.width && this.height == other.height && this.spec.equals(other.spec);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * this.spec.hashCode() + this.width) + this.height;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+
+/**
+ * 可选中的文本图像
+ *
+ * 同时持有未选中（文本图像）及选中（空白底色加对勾）两种外观，通过{@link #setChecked(boolean, boolean)}切换，不重新创建图像。
+ * 只有用{@link #create(TextDrawable, int, int, boolean)}开启时才跟随宿主视图的 state_checked 状态，
+ * 放在普通（不可选中）视图中时，按下、获得焦点等状态变化不会把图像切换为未选中。切换时可以淡入淡出：旧外观照常绘制，新外观按透明度调制画笔后画在上面，
+ * 不使用离屏图层；动画期间每帧只读时钟并重绘，不分配对象（第一次淡入淡出时两种外观各复制一次画笔）。
+ * 两种外观以本图像为回调，它们的 invalidate（图集区域被淘汰或搬走、缓存位图异步到达）转发给宿主视图。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class CheckableTextDrawable extends Drawable implements Drawable.Callback {
+
+    public static final int DEFAULT_CHECKED_BG_COLOR = Color.WHITE;
+    public static final int DEFAULT_CHECK_COLOR      = 0xff616161;
+    public static final int DEFAULT_FADE_DURATION    = 200;
+
+    private final TextDrawable mUncheckedFace;
+    private final TextDrawable mCheckedFace;
+    private final Paint        mCheckPaint;
+    private final Path         mCheckPath = new Path();
+
+    private final boolean mFollowsCheckedState;
+
+    private boolean mChecked;
+    private int     mAlpha = 0xff;
+    private int     mFadeDuration;
+    private long    mFadeStart;
+
+    /**
+     * 使用默认的选中外观：白色底色、灰色对勾
+     *
+     * @param unchecked 未选中时的文本图像
+     *
+     * @return
+     */
+    public static CheckableTextDrawable create(TextDrawable unchecked) {
+        return create(unchecked, DEFAULT_CHECKED_BG_COLOR, DEFAULT_CHECK_COLOR);
+    }
+
+    /**
+     * @param unchecked      未选中时的文本图像，选中外观使用相同的形状、尺寸及边框
+     * @param checkedBgColor 选中时的底色
+     * @param checkColor     对勾颜色
+     *
+     * @return
+     */
+    public static CheckableTextDrawable create(TextDrawable unchecked, int checkedBgColor, int checkColor) {
+        return create(unchecked, checkedBgColor, checkColor, false);
+    }
+
+    /**
+     * @param unchecked           未选中时的文本图像，选中外观使用相同的形状、尺寸及边框
+     * @param checkedBgColor      选中时的底色
+     * @param checkColor          对勾颜色
+     * @param followsCheckedState 是否跟随{@link #setState(int[])}中的 state_checked，宿主为可选中的视图（如 CheckedTextView）时才开启
+     *
+     * @return
+     */
+    public static CheckableTextDrawable create(TextDrawable unchecked, int checkedBgColor, int checkColor, boolean followsCheckedState) {
+        TextDrawable checked = TextDrawable.create(unchecked.getSpec().derive("", checkColor, checkedBgColor));
+        return new CheckableTextDrawable(unchecked, checked, checkColor, followsCheckedState);
+    }
+
+    private CheckableTextDrawable(TextDrawable unchecked, TextDrawable checked, int checkColor, boolean followsCheckedState) {
+        this.mFollowsCheckedState = followsCheckedState;
+        this.mUncheckedFace = unchecked;
+        this.mCheckedFace = checked;
+        this.mFadeDuration = DEFAULT_FADE_DURATION;
+        unchecked.setCallback(this);
+        checked.setCallback(this);
+
+        this.mCheckPaint = new Paint();
+        this.mCheckPaint.setColor(checkColor);
+        this.mCheckPaint.setAntiAlias(true);
+        this.mCheckPaint.setStyle(Paint.Style.STROKE);
+        this.mCheckPaint.setStrokeCap(Paint.Cap.ROUND);
+        this.mCheckPaint.setStrokeJoin(Paint.Join.ROUND);
+    }
+
+    /**
+     * 切换选中状态
+     *
+     * @param checked
+     * @param animate 是否淡入淡出
+     */
+    public void setChecked(boolean checked, boolean animate) {
+        if (this.mChecked == checked) {
+            return;
+        }
+        this.mChecked = checked;
+        this.mFadeStart = animate && this.mFadeDuration > 0 ? SystemClock.uptimeMillis() : 0;
+        invalidateSelf();
+    }
+
+    public boolean isChecked() {
+        return this.mChecked;
+    }
+
+    /**
+     * 淡入淡出时长（毫秒），0 表示直接切换
+     *
+     * @param millis
+     */
+    public void setFadeDuration(int millis) {
+        this.mFadeDuration = millis;
+    }
+
+    /**
+     * 未选中时的文本图像
+     */
+    public TextDrawable getTextDrawable() {
+        return this.mUncheckedFace;
+    }
+
+    @Override
+    public boolean isStateful() {
+        return this.mFollowsCheckedState;
+    }
+
+    @Override
+    protected boolean onStateChange(int[] state) {
+        if (!this.mFollowsCheckedState) {
+            return false;
+        }
+        boolean checked = false;
+        for (int s : state) {
+            if (s == android.R.attr.state_checked) {
+                checked = true;
+                break;
+            }
+        }
+        if (checked == this.mChecked) {
+            return false;
+        }
+        setChecked(checked, true);
+        return true;
+    }
+
+    @Override
+    public void jumpToCurrentState() {
+        super.jumpToCurrentState();
+        this.mFadeStart = 0;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        this.mUncheckedFace.setBounds(bounds);
+        this.mCheckedFace.setBounds(bounds);
+
+        // check mark, a short and a long stroke
+        float w = bounds.width();
+        float h = bounds.height();
+        this.mCheckPath.reset();
+        this.mCheckPath.moveTo(bounds.left + w * 0.28f, bounds.top + h * 0.52f);
+        this.mCheckPath.lineTo(bounds.left + w * 0.43f, bounds.top + h * 0.67f);
+        this.mCheckPath.lineTo(bounds.left + w * 0.72f, bounds.top + h * 0.36f);
+        this.mCheckPaint.setStrokeWidth(Math.min(w, h) * 0.08f);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        int fade = fadeAlpha();
+        if (fade == 0xff) {
+            drawFace(canvas, this.mChecked, 0xff);
+            return;
+        }
+
+        // cross-fade: the old face underneath, the new face on top with modulated paint alpha
+        drawFace(canvas, !this.mChecked, 0xff);
+        drawFace(canvas, this.mChecked, fade);
+        invalidateSelf();
+    }
+
+    private void drawFace(Canvas canvas, boolean checked, int alpha) {
+        TextDrawable face = checked ? this.mCheckedFace : this.mUncheckedFace;
+        if (alpha == 0xff) {
+            face.draw(canvas);
+        }
+        else {
+            face.drawWithAlpha(canvas, alpha);
+        }
+        if (checked) {
+            this.mCheckPaint.setAlpha(this.mAlpha * alpha / 0xff);
+            canvas.drawPath(this.mCheckPath, this.mCheckPaint);
+        }
+    }
+
+    /**
+     * 当前外观的透明度，动画结束后为 0xff
+     */
+    private int fadeAlpha() {
+        if (this.mFadeStart == 0) {
+            return 0xff;
+        }
+        long elapsed = SystemClock.uptimeMillis() - this.mFadeStart;
+        if (elapsed >= this.mFadeDuration) {
+            this.mFadeStart = 0;
+            return 0xff;
+        }
+        return (int) (0xff * elapsed / this.mFadeDuration);
+    }
+
+    @Override
+    public void invalidateDrawable(Drawable who) {
+        invalidateSelf();
+    }
+
+    @Override
+    public void scheduleDrawable(Drawable who, Runnable what, long when) {
+        scheduleSelf(what, when);
+    }
+
+    @Override
+    public void unscheduleDrawable(Drawable who, Runnable what) {
+        unscheduleSelf(what);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        this.mAlpha = alpha;
+        this.mUncheckedFace.setAlpha(alpha);
+        this.mCheckedFace.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+        this.mUncheckedFace.setColorFilter(cf);
+        this.mCheckedFace.setColorFilter(cf);
+        this.mCheckPaint.setColorFilter(cf);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        if (this.mFadeStart != 0) {
+            return PixelFormat.TRANSLUCENT;
+        }
+        return this.mChecked ? this.mCheckedFace.getOpacity() : this.mUncheckedFace.getOpacity();
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return this.mUncheckedFace.getIntrinsicWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return this.mUncheckedFace.getIntrinsicHeight();
+    }
+}
@@ -0,0 +1,343 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+
+/**
+ * 计数文本图像
+ *
+ * 用于角标、倒计时等数字频繁变化的场景：一个图像只持有一个形状和一套画笔，每帧只修改数值和颜色，不再为每个数字创建一个{@link TextDrawable}。
+ * 数值格式化到复用的字符缓冲区，数字字形宽度按字号缓存，帧回调通过{@link #scheduleSelf(Runnable, long)}触发重绘，每帧不分配对象。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class CounterTextDrawable extends Drawable implements Animatable, Runnable {
+
+    public static final long DEFAULT_INTERVAL = 1000;
+
+    // '0'..'9' followed by '-'
+    private static final String GLYPHS = "0123456789-";
+
+    private final TextDrawableSpec spec;
+    private final Paint            bgPaint;
+    private final Paint            borderPaint;
+    private final Paint            textPaint;
+    private final AvatarLayout     layout     = new AvatarLayout();
+    private final RectF            shapeRect  = new RectF();
+    private final RectF            borderRect = new RectF();
+
+    // formatted value, the digits occupy [textStart, buffer.length)
+    private final char[]  buffer      = new char[11];
+    private final float[] glyphWidths = new float[GLYPHS.length()];
+    private float         glyphTextSize;
+    private int           textStart;
+    private float         textWidth;
+    private int           value;
+
+    // counting
+    private int            from;
+    private int            to;
+    private long           interval;
+    private boolean        looping;
+    private boolean        running;
+    private OnTickListener listener;
+
+    /**
+     * 数值变化监听，在帧回调中调用，可在此修改颜色
+     */
+    public interface OnTickListener {
+
+        void onTick(CounterTextDrawable drawable, int value);
+    }
+
+    private CounterTextDrawable(TextDrawableSpec spec) {
+        this.spec = spec;
+        this.interval = DEFAULT_INTERVAL;
+
+        this.bgPaint = new Paint();
+        this.bgPaint.setAntiAlias(true);
+        this.bgPaint.setStyle(Paint.Style.FILL);
+
+        // own copies, the colors change per frame
+        this.borderPaint = new Paint(PaintPool.borderPaint(spec.getBorderColor(), spec.getBorderThickness()));
+        this.textPaint = new Paint(PaintPool.textPaint(spec.getFont(), spec.isBold(), spec.getTextColor(), spec.getBorderThickness()));
+        this.textPaint.setTextAlign(Paint.Align.LEFT);
+
+        setColors(spec.getTextColor(), spec.getBgColor(), spec.getBorderColor());
+        setValue(0);
+    }
+
+    /**
+     * 根据描述创建计数图像，描述中的形状、尺寸、字体及颜色作为初始外观，文本被忽略
+     *
+     * @param spec
+     *
+     * @return
+     */
+    public static CounterTextDrawable create(TextDrawableSpec spec) {
+        return new CounterTextDrawable(spec);
+    }
+
+    /**
+     * 设置数值
+     *
+     * @param value
+     */
+    public void setValue(int value) {
+        this.value = value;
+
+        // format from the end, Integer.MIN_VALUE needs all 11 chars
+        char[] buf = this.buffer;
+        int pos = buf.length;
+        long v = value;
+        boolean negative = v < 0;
+        if (negative) {
+            v = -v;
+        }
+        do {
+            buf[--pos] = (char) ('0' + (int) (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (negative) {
+            buf[--pos] = '-';
+        }
+        this.textStart = pos;
+        measure();
+        invalidateSelf();
+    }
+
+    public int getValue() {
+        return this.value;
+    }
+
+    /**
+     * 设置颜色，边框颜色取背景色的深色
+     *
+     * @param textColor
+     * @param bgColor
+     */
+    public void setColors(int textColor, int bgColor) {
+        setColors(textColor, bgColor, ColorGenerator.darkerShade(bgColor));
+    }
+
+    /**
+     * 设置颜色
+     *
+     * @param textColor
+     * @param bgColor
+     * @param borderColor
+     */
+    public void setColors(int textColor, int bgColor, int borderColor) {
+        // keep the alpha set through setAlpha()
+        int alpha = this.textPaint.getAlpha();
+        this.textPaint.setColor(textColor);
+        this.textPaint.setAlpha(alpha);
+        this.bgPaint.setColor(bgColor);
+        this.borderPaint.setColor(borderColor);
+        invalidateSelf();
+    }
+
+    /**
+     * 使用调色板中的颜色
+     *
+     * @param palette
+     * @param index
+     */
+    public void setColors(ColorGenerator palette, int index) {
+        setColors(palette.getTextColor(index), palette.getColorAt(index), palette.getBorderColor(index));
+    }
+
+    /**
+     * 设置计数范围，{@link #start()}后每隔{@link #setInterval(long)}毫秒从 from 向 to 递增或递减1
+     *
+     * @param from
+     * @param to
+     */
+    public void setRange(int from, int to) {
+        this.from = from;
+        this.to = to;
+        setValue(from);
+    }
+
+    public void setInterval(long millis) {
+        this.interval = millis;
+    }
+
+    /**
+     * 到达终点后是否从头开始
+     *
+     * @param looping
+     */
+    public void setLooping(boolean looping) {
+        this.looping = looping;
+    }
+
+    public void setOnTickListener(OnTickListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void start() {
+        if (this.running) {
+            return;
+        }
+        this.running = true;
+        scheduleSelf(this, SystemClock.uptimeMillis() + this.interval);
+    }
+
+    @Override
+    public void stop() {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        unscheduleSelf(this);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * 帧回调
+     */
+    @Override
+    public void run() {
+        if (!this.running) {
+            return;
+        }
+        int next;
+        if (this.value == this.to) {
+            if (!this.looping) {
+                this.running = false;
+                return;
+            }
+            next = this.from;
+        }
+        else {
+            next = this.to > this.value ? this.value + 1 : this.value - 1;
+        }
+        setValue(next);
+        if (this.listener != null) {
+            this.listener.onTick(this, next);
+        }
+        if (this.running && (this.looping || next != this.to)) {
+            scheduleSelf(this, SystemClock.uptimeMillis() + this.interval);
+        }
+        else {
+            this.running = false;
+        }
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (!visible) {
+            unscheduleSelf(this);
+        }
+        else if (this.running && (changed || restart)) {
+            scheduleSelf(this, SystemClock.uptimeMillis() + this.interval);
+        }
+        return changed;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+
+        TextDrawableSpec spec = this.spec;
+        AvatarLayout layout = this.layout;
+        layout.layout(bounds.left, bounds.top, bounds.right, bounds.bottom, spec.getWidth(), spec.getHeight(), spec.getBorderThickness(), spec.getFontSize());
+        this.shapeRect.set(bounds.left, bounds.top, bounds.right, bounds.bottom);
+        this.borderRect.set(layout.getBorderLeft(), layout.getBorderTop(), layout.getBorderRight(), layout.getBorderBottom());
+        this.textPaint.setTextSize(layout.getTextSize());
+        layout.setFontMetrics(this.textPaint.ascent(), this.textPaint.descent());
+        measure();
+    }
+
+    /**
+     * 由缓存的字形宽度计算文本宽度，字号变化时才重新测量字形
+     */
+    private void measure() {
+        float textSize = this.textPaint.getTextSize();
+        if (this.glyphTextSize != textSize) {
+            this.textPaint.getTextWidths(GLYPHS, this.glyphWidths);
+            this.glyphTextSize = textSize;
+        }
+        char[] buf = this.buffer;
+        float width = 0;
+        for (int i = this.textStart; i < buf.length; i++) {
+            char c = buf[i];
+            width += this.glyphWidths[c == '-' ? 10 : c - '0'];
+        }
+        this.textWidth = width;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        int shapeType = this.spec.getShapeType();
+        drawShape(canvas, shapeType, this.shapeRect, this.bgPaint);
+        if (this.spec.getBorderThickness() > 0) {
+            drawShape(canvas, shapeType, this.borderRect, this.borderPaint);
+        }
+
+        AvatarLayout layout = this.layout;
+        int start = this.textStart;
+        canvas.drawText(this.buffer, start, this.buffer.length - start, layout.getTextX() - this.textWidth / 2, layout.getTextY(), this.textPaint);
+    }
+
+    private void drawShape(Canvas canvas, int shapeType, RectF rect, Paint paint) {
+        if (shapeType == TextDrawableSpec.SHAPE_ROUND) {
+            canvas.drawOval(rect, paint);
+        }
+        else if (shapeType == TextDrawableSpec.SHAPE_ROUND_RECT) {
+            float radius = this.spec.getRadius();
+            canvas.drawRoundRect(rect, radius, radius, paint);
+        }
+        else {
+            canvas.drawRect(rect, paint);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (this.textPaint.getAlpha() != alpha) {
+            this.textPaint.setAlpha(alpha);
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+        this.textPaint.setColorFilter(cf);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        int shapeType = this.spec.getShapeType();
+        if (shapeType == TextDrawableSpec.SHAPE_RECT && this.bgPaint.getAlpha() == 0xff) {
+            return PixelFormat.OPAQUE;
+        }
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return this.spec.getWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return this.spec.getHeight();
+    }
+}
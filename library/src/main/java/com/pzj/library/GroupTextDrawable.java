@@ -0,0 +1,301 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+
+/**
+ * 群组文本图像
+ *
+ * 把2~4个成员的首字母画在同一个形状中：2人左右各半，3人左半加右侧上下两格，4人四格。
+ * 所有分格由一个图像一次绘制，共用一支背景画笔、一支文本画笔（每格切换颜色）及一支边框画笔，
+ * 不再用 LayerDrawable 嵌套多个 InsetDrawable 拼接。
+ *
+ * 形状、尺寸、字体、字号及边框取自第一个描述，背景色、文本及文本颜色取自各自的描述。
+ * setAlpha、setColorFilter 作用于背景、边框（含分隔线）及文本；三支画笔都是自己的，不修改 {@link PaintPool} 中共享的画笔。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class GroupTextDrawable extends Drawable {
+
+    public static final int MIN_SEGMENTS = 2;
+    public static final int MAX_SEGMENTS = 4;
+
+    // segment bounds as fractions of the shape: left, top, right, bottom
+    private static final float[][] SEGMENTS_2 = { { 0, 0, 0.5f, 1 }, { 0.5f, 0, 1, 1 } };
+    private static final float[][] SEGMENTS_3 = { { 0, 0, 0.5f, 1 }, { 0.5f, 0, 1, 0.5f }, { 0.5f, 0.5f, 1, 1 } };
+    private static final float[][] SEGMENTS_4 = { { 0, 0, 0.5f, 0.5f }, { 0.5f, 0, 1, 0.5f }, { 0, 0.5f, 0.5f, 1 }, { 0.5f, 0.5f, 1, 1 } };
+
+    // text in a round segment is pulled towards the center, away from the arc
+    private static final float ROUND_TEXT_PULL = 0.85f;
+
+    private final TextDrawableSpec spec;
+    private final String[]         texts;
+    private final int[]            textColors;
+    private final int[]            bgColors;
+    private final float[][]        fractions;
+
+    private final Paint bgPaint;
+    private final Paint textPaint;
+    private final Paint borderPaint;
+
+    // geometry computed in onBoundsChange(), draw() only reads it
+    private final RectF   shapeRect  = new RectF();
+    private final RectF   borderRect = new RectF();
+    private final RectF[] segments;
+    private final Path[]  segmentPaths;
+    private final float[] textX;
+    private final float[] textY;
+
+    private int alpha = 0xff;
+
+    private GroupTextDrawable(TextDrawableSpec[] specs) {
+        int count = specs.length;
+        this.spec = specs[0];
+        this.texts = new String[count];
+        this.textColors = new int[count];
+        this.bgColors = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.texts[i] = specs[i].getText();
+            this.textColors[i] = specs[i].getTextColor();
+            this.bgColors[i] = specs[i].getBgColor();
+        }
+        this.fractions = count == 2 ? SEGMENTS_2 : count == 3 ? SEGMENTS_3 : SEGMENTS_4;
+
+        this.segments = new RectF[count];
+        this.segmentPaths = this.spec.getShapeType() == TextDrawableSpec.SHAPE_ROUND_RECT ? new Path[count] : null;
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new RectF();
+            if (this.segmentPaths != null) {
+                this.segmentPaths[i] = new Path();
+            }
+        }
+        this.textX = new float[count];
+        this.textY = new float[count];
+
+        TextDrawableSpec spec = this.spec;
+        this.bgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        this.bgPaint.setStyle(Paint.Style.FILL);
+        // own copies: the color changes per segment, alpha and color filter change per drawable
+        this.textPaint = new Paint(PaintPool.textPaint(spec.getFont(), spec.isBold(), spec.getTextColor(), spec.getBorderThickness()));
+        this.borderPaint = PaintPool.newBorderPaint(spec.getBorderColor(), spec.getBorderThickness());
+    }
+
+    /**
+     * 根据成员的描述创建群组图像
+     *
+     * @param specs 2~4个描述，可由同一个{@link TextDrawable.IBuilder#spec(String, int)}生成
+     *
+     * @return
+     */
+    public static GroupTextDrawable create(TextDrawableSpec... specs) {
+        if (specs.length < MIN_SEGMENTS || specs.length > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("segment count must be 2~4: " + specs.length);
+        }
+        return new GroupTextDrawable(specs.clone());
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+
+        TextDrawableSpec spec = this.spec;
+        float w = bounds.width();
+        float h = bounds.height();
+        float cx = bounds.left + w / 2;
+        float cy = bounds.top + h / 2;
+        int shapeType = spec.getShapeType();
+        this.shapeRect.set(bounds.left, bounds.top, bounds.right, bounds.bottom);
+        int inset = spec.getBorderThickness() / 2;
+        this.borderRect.set(bounds.left + inset, bounds.top + inset, bounds.right - inset, bounds.bottom - inset);
+
+        float minSide = Float.MAX_VALUE;
+        for (int i = 0; i < this.segments.length; i++) {
+            float[] f = this.fractions[i];
+            RectF segment = this.segments[i];
+            segment.set(bounds.left + w * f[0], bounds.top + h * f[1], bounds.left + w * f[2], bounds.top + h * f[3]);
+            minSide = Math.min(minSide, Math.min(segment.width(), segment.height()));
+
+            float x = segment.centerX();
+            float y = segment.centerY();
+            if (shapeType == TextDrawableSpec.SHAPE_ROUND) {
+                x = cx + (x - cx) * ROUND_TEXT_PULL;
+                y = cy + (y - cy) * ROUND_TEXT_PULL;
+            }
+            this.textX[i] = x;
+            this.textY[i] = y;
+
+            if (this.segmentPaths != null) {
+                buildRoundRectPath(this.segmentPaths[i], segment, f, spec.getRadius());
+            }
+        }
+
+        // one text size for all segments, the configured size or half of the smallest segment side
+        float textSize = spec.getFontSize() > 0 ? spec.getFontSize() : minSide / 2;
+        this.textPaint.setTextSize(textSize);
+        float baselineOffset = (this.textPaint.descent() + this.textPaint.ascent()) / 2;
+        for (int i = 0; i < this.textY.length; i++) {
+            this.textY[i] -= baselineOffset;
+        }
+    }
+
+    /**
+     * 圆角矩形的分格：只有与外框重合的角是圆角
+     */
+    private static void buildRoundRectPath(Path path, RectF segment, float[] f, float radius) {
+        float topLeft = f[0] == 0 && f[1] == 0 ? radius : 0;
+        float topRight = f[2] == 1 && f[1] == 0 ? radius : 0;
+        float bottomRight = f[2] == 1 && f[3] == 1 ? radius : 0;
+        float bottomLeft = f[0] == 0 && f[3] == 1 ? radius : 0;
+        float[] radii = { topLeft, topLeft, topRight, topRight, bottomRight, bottomRight, bottomLeft, bottomLeft };
+        path.reset();
+        path.addRoundRect(segment, radii, Path.Direction.CW);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        int shapeType = this.spec.getShapeType();
+
+        // backgrounds
+        Paint bgPaint = this.bgPaint;
+        for (int i = 0; i < this.segments.length; i++) {
+            bgPaint.setColor(modulateAlpha(this.bgColors[i], this.alpha));
+            if (shapeType == TextDrawableSpec.SHAPE_ROUND) {
+                float[] f = this.fractions[i];
+                canvas.drawArc(this.shapeRect, startAngle(f), sweepAngle(f), true, bgPaint);
+            }
+            else if (this.segmentPaths != null) {
+                canvas.drawPath(this.segmentPaths[i], bgPaint);
+            }
+            else {
+                canvas.drawRect(this.segments[i], bgPaint);
+            }
+        }
+
+        // border & dividers
+        if (this.spec.getBorderThickness() > 0) {
+            drawBorder(canvas, shapeType);
+        }
+
+        // texts
+        Paint textPaint = this.textPaint;
+        for (int i = 0; i < this.texts.length; i++) {
+            textPaint.setColor(modulateAlpha(this.textColors[i], this.alpha));
+            canvas.drawText(this.texts[i], this.textX[i], this.textY[i], textPaint);
+        }
+    }
+
+    private void drawBorder(Canvas canvas, int shapeType) {
+        RectF rect = this.borderRect;
+        Paint paint = this.borderPaint;
+        if (shapeType == TextDrawableSpec.SHAPE_ROUND) {
+            canvas.drawOval(rect, paint);
+        }
+        else if (shapeType == TextDrawableSpec.SHAPE_ROUND_RECT) {
+            canvas.drawRoundRect(rect, this.spec.getRadius(), this.spec.getRadius(), paint);
+        }
+        else {
+            canvas.drawRect(rect, paint);
+        }
+
+        // vertical divider, then the horizontal one across the right half (3) or the whole shape (4)
+        float cx = this.shapeRect.centerX();
+        float cy = this.shapeRect.centerY();
+        canvas.drawLine(cx, rect.top, cx, rect.bottom, paint);
+        if (this.segments.length == 3) {
+            canvas.drawLine(cx, cy, rect.right, cy, paint);
+        }
+        else if (this.segments.length == 4) {
+            canvas.drawLine(rect.left, cy, rect.right, cy, paint);
+        }
+    }
+
+    /**
+     * 分格对应扇形的起始角度，0度为3点钟方向，顺时针
+     */
+    private static float startAngle(float[] f) {
+        boolean left = f[0] == 0;
+        boolean fullHeight = f[1] == 0 && f[3] == 1;
+        if (fullHeight) {
+            return left ? 90 : 270;
+        }
+        boolean top = f[1] == 0;
+        if (left) {
+            return top ? 180 : 90;
+        }
+        return top ? 270 : 0;
+    }
+
+    private static float sweepAngle(float[] f) {
+        return f[1] == 0 && f[3] == 1 ? 180 : 90;
+    }
+
+    /**
+     * 把透明度乘进颜色原有的透明度
+     */
+    private static int modulateAlpha(int color, int alpha) {
+        if (alpha == 0xff) {
+            return color;
+        }
+        int modulated = (color >>> 24) * alpha / 0xff;
+        return (color & 0x00ffffff) | (modulated << 24);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (this.alpha != alpha) {
+            this.alpha = alpha;
+            this.borderPaint.setColor(modulateAlpha(this.spec.getBorderColor(), alpha));
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return this.alpha;
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+        this.bgPaint.setColorFilter(cf);
+        this.borderPaint.setColorFilter(cf);
+        this.textPaint.setColorFilter(cf);
+        invalidateSelf();
+    }
+
+    @Override
+    public ColorFilter getColorFilter() {
+        return this.textPaint.getColorFilter();
+    }
+
+    @Override
+    public int getOpacity() {
+        int opacity = segmentOpacity(0);
+        for (int i = 1; i < this.texts.length; i++) {
+            opacity = Drawable.resolveOpacity(opacity, segmentOpacity(i));
+        }
+        return opacity;
+    }
+
+    private int segmentOpacity(int i) {
+        int bgColor = modulateAlpha(this.bgColors[i], this.alpha);
+        int borderThickness = this.alpha != 0 ? this.spec.getBorderThickness() : 0;
+        int textAlpha = (this.textColors[i] >>> 24) * this.alpha / 0xff;
+        return TextDrawable.resolveOpacity(this.spec.getShapeType(), bgColor, borderThickness, this.texts[i], textAlpha);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return this.spec.getWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return this.spec.getHeight();
+    }
+}
@@ -0,0 +1,237 @@
+package com.pzj.library;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+/**
+ * 延迟创建的文本图像
+ *
+ * 只持有不可变的{@link TextDrawableSpec}，第一次绘制时才创建真正的{@link TextDrawable}（画笔、形状及布局）。
+ * 列表一次性为所有行准备图像时，从未显示的行不再占用画笔及形状。
+ * 已创建的图像一直保留，滚动时视图反复 detach/attach、可见性反复切换都不会重新创建；只在内存紧张时释放：
+ * {@link AvatarMemoryController}收到内存回调时，先释放不可见的图像，内存耗尽时全部释放，下次绘制时重新创建。
+ * 也可以直接调用{@link #release()}。尺寸及不透明度直接由描述计算，不会触发创建。
+ * 真正的图像以本图像为回调，它的 invalidate（图集区域被淘汰或搬走、缓存位图异步到达）转发给宿主视图。只能在主线程使用。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class LazyTextDrawable extends Drawable implements Drawable.Callback {
+
+    // materialized drawables, released on memory pressure, main thread only
+    private static final WeakHashMap<LazyTextDrawable, Boolean> sMaterialized = new WeakHashMap<LazyTextDrawable, Boolean>();
+
+    private final LazyState state;
+
+    private TextDrawable delegate;
+    private int          alpha = 0xff;
+    private ColorFilter  colorFilter;
+
+    private LazyTextDrawable(LazyState state) {
+        this.state = state;
+    }
+
+    /**
+     * 根据描述创建延迟图像
+     *
+     * @param spec
+     *
+     * @return
+     */
+    public static LazyTextDrawable create(TextDrawableSpec spec) {
+        return new LazyTextDrawable(new LazyState(spec, null));
+    }
+
+    /**
+     * 根据描述创建延迟图像，创建时从工厂获取共享状态
+     *
+     * @param spec
+     * @param factory
+     *
+     * @return
+     */
+    public static LazyTextDrawable create(TextDrawableSpec spec, TextDrawableFactory factory) {
+        return new LazyTextDrawable(new LazyState(spec, factory));
+    }
+
+    /**
+     * 获取文本图像描述
+     *
+     * @return
+     */
+    public TextDrawableSpec getSpec() {
+        return this.state.spec;
+    }
+
+    /**
+     * 是否已创建真正的文本图像
+     *
+     * @return
+     */
+    public boolean isMaterialized() {
+        return this.delegate != null;
+    }
+
+    /**
+     * 释放已创建的文本图像，下次绘制时重新创建
+     */
+    public void release() {
+        if (this.delegate != null) {
+            this.delegate.setCallback(null);
+            this.delegate = null;
+            sMaterialized.remove(this);
+        }
+    }
+
+    /**
+     * 已创建的真正图像，未创建时返回 null
+     */
+    TextDrawable delegate() {
+        return this.delegate;
+    }
+
+    /**
+     * 内存紧张时释放已创建的图像，参见{@link Trimmable}：保留比例低于1时释放不可见的图像，为0时全部释放
+     *
+     * @param fraction
+     *
+     * @return 画笔及形状的内存无法估算，返回0
+     */
+    static long trimToFraction(float fraction) {
+        if (fraction >= 1f || sMaterialized.isEmpty()) {
+            return 0;
+        }
+        ArrayList<LazyTextDrawable> drawables = new ArrayList<LazyTextDrawable>(sMaterialized.keySet());
+        for (LazyTextDrawable drawable : drawables) {
+            if (fraction <= 0f || !drawable.isVisible()) {
+                drawable.release();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 已创建真正图像的延迟图像个数
+     */
+    static int materializedCount() {
+        return sMaterialized.size();
+    }
+
+    private TextDrawable materialize() {
+        TextDrawable delegate = this.delegate;
+        if (delegate == null) {
+            TextDrawableFactory factory = this.state.factory;
+            delegate = factory != null ? factory.obtain(this.state.spec) : TextDrawable.create(this.state.spec);
+            if (this.alpha != 0xff) {
+                delegate.setAlpha(this.alpha);
+            }
+            if (this.colorFilter != null) {
+                delegate.setColorFilter(this.colorFilter);
+            }
+            delegate.setBounds(getBounds());
+            delegate.setCallback(this);
+            this.delegate = delegate;
+            sMaterialized.put(this, Boolean.TRUE);
+        }
+        return delegate;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        if (this.delegate != null) {
+            this.delegate.setBounds(bounds);
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        materialize().draw(canvas);
+    }
+
+    @Override
+    public void invalidateDrawable(Drawable who) {
+        invalidateSelf();
+    }
+
+    @Override
+    public void scheduleDrawable(Drawable who, Runnable what, long when) {
+        scheduleSelf(what, when);
+    }
+
+    @Override
+    public void unscheduleDrawable(Drawable who, Runnable what) {
+        unscheduleSelf(what);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (this.alpha != alpha) {
+            this.alpha = alpha;
+            if (this.delegate != null) {
+                this.delegate.setAlpha(alpha);
+            }
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter cf) {
+        if (this.colorFilter != cf) {
+            this.colorFilter = cf;
+            if (this.delegate != null) {
+                this.delegate.setColorFilter(cf);
+            }
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getOpacity() {
+        TextDrawableSpec spec = this.state.spec;
+        return TextDrawable.resolveOpacity(spec.getShapeType(), spec.getBgColor(), spec.getBorderThickness(), spec.getText(), this.alpha);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return this.state.spec.getWidth();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return this.state.spec.getHeight();
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return this.state;
+    }
+
+    /**
+     * 共享状态：只有描述及可选的工厂
+     */
+    static final class LazyState extends ConstantState {
+
+        final TextDrawableSpec    spec;
+        final TextDrawableFactory factory;
+
+        LazyState(TextDrawableSpec spec, TextDrawableFactory factory) {
+            this.spec = spec;
+            this.factory = factory;
+        }
+
+        @Override
+        public LazyTextDrawable newDrawable() {
+            return new LazyTextDrawable(this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.pzj.library;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 渲染指标记录器
+ *
+ * {@link TextDrawableMetrics}的默认实现，无锁计数；draw 耗时按2的幂分桶记录为直方图。
+ * 通过{@link #snapshot()}取得某一时刻的只读快照，上报到自己的统计系统。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class MetricsRecorder extends TextDrawableMetrics {
+
+    /**
+     * 直方图桶数，第 i 个桶记录耗时在[2^i, 2^(i+1))纳秒内的 draw 次数，第0个桶包含0纳秒
+     */
+    public static final int BUCKET_COUNT = 40;
+
+    private final AtomicLongArray mDrawHistogram  = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong      mDrawCount      = new AtomicLong();
+    private final AtomicLong      mDrawNanos      = new AtomicLong();
+    private final AtomicLong      mDrawableCount  = new AtomicLong();
+    private final AtomicLong      mBuilderCount   = new AtomicLong();
+    private final AtomicLong      mCacheHitCount  = new AtomicLong();
+    private final AtomicLong      mCacheMissCount = new AtomicLong();
+    private final AtomicLong      mBitmapBytes    = new AtomicLong();
+
+    @Override
+    public void onDraw(long nanos) {
+        this.mDrawHistogram.incrementAndGet(bucketFor(nanos));
+        this.mDrawCount.incrementAndGet();
+        this.mDrawNanos.addAndGet(nanos);
+    }
+
+    @Override
+    public void onDrawableCreated() {
+        this.mDrawableCount.incrementAndGet();
+    }
+
+    @Override
+    public void onBuilderCreated() {
+        this.mBuilderCount.incrementAndGet();
+    }
+
+    @Override
+    public void onCacheHit() {
+        this.mCacheHitCount.incrementAndGet();
+    }
+
+    @Override
+    public void onCacheMiss() {
+        this.mCacheMissCount.incrementAndGet();
+    }
+
+    @Override
+    public void onBitmapBytesChanged(long deltaBytes) {
+        this.mBitmapBytes.addAndGet(deltaBytes);
+    }
+
+    static int bucketFor(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(nanos);
+        return bucket < BUCKET_COUNT ? bucket : BUCKET_COUNT - 1;
+    }
+
+    /**
+     * 清零所有计数，持有的位图字节数除外
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.mDrawHistogram.set(i, 0);
+        }
+        this.mDrawCount.set(0);
+        this.mDrawNanos.set(0);
+        this.mDrawableCount.set(0);
+        this.mBuilderCount.set(0);
+        this.mCacheHitCount.set(0);
+        this.mCacheMissCount.set(0);
+    }
+
+    /**
+     * 获取当前快照
+     *
+     * @return
+     */
+    public Snapshot snapshot() {
+        long[] histogram = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            histogram[i] = this.mDrawHistogram.get(i);
+        }
+        return new Snapshot(histogram, this.mDrawCount.get(), this.mDrawNanos.get(), this.mDrawableCount.get(), this.mBuilderCount.get(), this.mCacheHitCount.get(), this.mCacheMissCount.get(), this.mBitmapBytes.get());
+    }
+
+    /**
+     * 指标快照
+     */
+    public static final class Snapshot {
+
+        private final long[] drawHistogram;
+        private final long   drawCount;
+        private final long   drawNanos;
+        private final long   drawableCount;
+        private final long   builderCount;
+        private final long   cacheHitCount;
+        private final long   cacheMissCount;
+        private final long   bitmapBytes;
+
+        Snapshot(long[] drawHistogram, long drawCount, long drawNanos, long drawableCount, long builderCount, long cacheHitCount, long cacheMissCount, long bitmapBytes) {
+            this.drawHistogram = drawHistogram;
+            this.drawCount = drawCount;
+            this.drawNanos = drawNanos;
+            this.drawableCount = drawableCount;
+            this.builderCount = builderCount;
+            this.cacheHitCount = cacheHitCount;
+            this.cacheMissCount = cacheMissCount;
+            this.bitmapBytes = bitmapBytes;
+        }
+
+        /**
+         * draw 耗时直方图，参见{@link #BUCKET_COUNT}
+         */
+        public long[] getDrawHistogram() {
+            return this.drawHistogram.clone();
+        }
+
+        public long getDrawCount() {
+            return this.drawCount;
+        }
+
+        public long getDrawNanos() {
+            return this.drawNanos;
+        }
+
+        /**
+         * 估算 draw 耗时的分位数，返回所在桶的上界（纳秒）
+         *
+         * @param percentile 0~1，如0.99
+         *
+         * @return
+         */
+        public long getDrawNanosPercentile(double percentile) {
+            if (this.drawCount == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(this.drawCount * percentile);
+            long seen = 0;
+            for (int i = 0; i < this.drawHistogram.length; i++) {
+                seen += this.drawHistogram[i];
+                if (seen >= target) {
+                    return 1L << (i + 1);
+                }
+            }
+            return 1L << this.drawHistogram.length;
+        }
+
+        public long getDrawableCount() {
+            return this.drawableCount;
+        }
+
+        public long getBuilderCount() {
+            return this.builderCount;
+        }
+
+        public long getCacheHitCount() {
+            return this.cacheHitCount;
+        }
+
+        public long getCacheMissCount() {
+            return this.cacheMissCount;
+        }
+
+        public long getBitmapBytes() {
+            return this.bitmapBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot[draws=" + this.drawCount + ",p50=" + getDrawNanosPercentile(0.5) + "ns,p99=" + getDrawNanosPercentile(0.99) + "ns,drawables=" + this.drawableCount + ",builders=" + this.builderCount + ",cacheHits=" + this.cacheHitCount + ",cacheMisses=" + this.cacheMissCount + ",bitmapBytes=" + this.bitmapBytes + "]";
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.pzj.library;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.v4.util.LruCache;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字体及画笔池
+ *
+ * 进程内共享的字体及画笔，按(字体、粗体、颜色、线宽)复用，避免每个 Builder 及 TextDrawable 重复创建。
+ * 池中的画笔为共享对象，除字号外不可修改，需要修改时先复制一份（参见{@link TextDrawable#mutate()}）。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class PaintPool {
+
+    private static final int MAX_PAINTS = 128;
+
+    private static final HashMap<String, Typeface> sTypefaces = new HashMap<String, Typeface>();
+
+    private static final LruCache<Key, Paint> sPaints = new LruCache<Key, Paint>(MAX_PAINTS);
+
+    private static volatile int sPaintLimit = MAX_PAINTS;
+
+    private PaintPool() {
+    }
+
+    /**
+     * 获取字体，相同字体族及样式只创建一次
+     *
+     * @param familyName 字体族，如"sans-serif-light"
+     * @param style      样式，如{@link Typeface#NORMAL}
+     *
+     * @return
+     */
+    public static Typeface typeface(String familyName, int style) {
+        String key = familyName + '#' + style;
+        synchronized (sTypefaces) {
+            Typeface typeface = sTypefaces.get(key);
+            if (typeface == null) {
+                typeface = Typeface.create(familyName, style);
+                sTypefaces.put(key, typeface);
+            }
+            return typeface;
+        }
+    }
+
+    /**
+     * 池中字体的名称（字体族#样式），不是由{@link #typeface(String, int)}创建的字体返回 null
+     *
+     * @param typeface
+     *
+     * @return
+     */
+    static String typefaceName(Typeface typeface) {
+        synchronized (sTypefaces) {
+            for (Map.Entry<String, Typeface> entry : sTypefaces.entrySet()) {
+                if (entry.getValue() == typeface) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取共享的文本画笔
+     *
+     * @param font
+     * @param isBold
+     * @param color
+     * @param strokeWidth
+     *
+     * @return
+     */
+    public static Paint textPaint(Typeface font, boolean isBold, int color, int strokeWidth) {
+        Key key = new Key(false, font, isBold, color, strokeWidth);
+        Paint paint = sPaints.get(key);
+        if (paint == null) {
+            paint = putIfAbsent(key, newTextPaint(font, isBold, color, strokeWidth));
+        }
+        return paint;
+    }
+
+    /**
+     * 新建不共享的文本画笔，属性与{@link #textPaint}相同
+     *
+     * 池中的画笔会被主线程修改字号，后台线程不能读取或复制它们，需要画笔时用这个方法新建。
+     *
+     * @param font
+     * @param isBold
+     * @param color
+     * @param strokeWidth
+     *
+     * @return
+     */
+    static Paint newTextPaint(Typeface font, boolean isBold, int color, int strokeWidth) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setAntiAlias(true);
+        paint.setFakeBoldText(isBold);
+        paint.setStyle(Paint.Style.FILL);
+        paint.setTypeface(font);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setStrokeWidth(strokeWidth);
+        return paint;
+    }
+
+    /**
+     * 获取共享的边框画笔
+     *
+     * @param color
+     * @param strokeWidth
+     *
+     * @return
+     */
+    public static Paint borderPaint(int color, int strokeWidth) {
+        Key key = new Key(true, null, false, color, strokeWidth);
+        Paint paint = sPaints.get(key);
+        if (paint == null) {
+            paint = putIfAbsent(key, newBorderPaint(color, strokeWidth));
+        }
+        return paint;
+    }
+
+    /**
+     * 新建不共享的边框画笔，属性与{@link #borderPaint}相同
+     *
+     * @param color
+     * @param strokeWidth
+     *
+     * @return
+     */
+    static Paint newBorderPaint(int color, int strokeWidth) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(strokeWidth);
+        return paint;
+    }
+
+    private static Paint putIfAbsent(Key key, Paint paint) {
+        synchronized (sPaints) {
+            Paint existing = sPaints.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            sPaints.put(key, paint);
+            int limit = sPaintLimit;
+            if (limit < MAX_PAINTS) {
+                sPaints.trimToSize(limit);
+            }
+            return paint;
+        }
+    }
+
+    /**
+     * 清空画笔池，已被图像引用的画笔不受影响
+     */
+    public static void evictAll() {
+        sPaints.evictAll();
+    }
+
+    /**
+     * 按比例收缩画笔池，参见{@link Trimmable}。字体不收缩：字体由系统缓存，且磁盘缓存的键依赖字体名称
+     *
+     * @param fraction
+     *
+     * @return 画笔的内存无法估算，返回0
+     */
+    static long trimToFraction(float fraction) {
+        // keep at least one paint so a put is never evicted on the spot
+        int limit = Math.max(1, (int) (MAX_PAINTS * fraction));
+        sPaintLimit = limit;
+        if (fraction <= 0f) {
+            sPaints.evictAll();
+        }
+        else {
+            sPaints.trimToSize(limit);
+        }
+        return 0;
+    }
+
+    /**
+     * 画笔池命中次数
+     */
+    public static int hitCount() {
+        return sPaints.hitCount();
+    }
+
+    /**
+     * 画笔池未命中次数
+     */
+    public static int missCount() {
+        return sPaints.missCount();
+    }
+
+    private static final class Key {
+
+        private final boolean  stroke;
+        private final Typeface font;
+        private final boolean  isBold;
+        private final int      color;
+        private final int      strokeWidth;
+
+        Key(boolean stroke, Typeface font, boolean isBold, int color, int strokeWidth) {
+            this.stroke = stroke;
+            this.font = font;
+            this.isBold = isBold;
+            this.color = color;
+            this.strokeWidth = strokeWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return this.stroke == other.stroke
+                && this.isBold == other.isBold
+                && this.color == other.color
+                && this.strokeWidth == other.strokeWidth
+                && (this.font == null ? other.font == null : this.font.equals(other.font));
+        }
+
+        @Override
+        public int hashCode() {
+            int h = this.stroke ? 1 : 0;
+            h = 31 * h + (this.font != null ? this.font.hashCode() : 0);
+            h = 31 * h + (this.isBold ? 1 : 0);
+            h = 31 * h + this.color;
+            h = 31 * h + this.strokeWidth;
+            return h;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.pzj.library;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
@@ -8,6 +9,7 @@ import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.OvalShape;
 import android.graphics.drawable.shapes.RectShape;
@@ -23,90 +25,236 @@ import android.graphics.drawable.shapes.RoundRectShape;
  */
 public class TextDrawable extends ShapeDrawable {
 
-    private static final float SHADE_FACTOR = 0.9f;
-
-    private final RectShape shape;
-    private final Paint     textPaint;
-    private final Paint     borderPaint;
-    private final String    text;
-    private final int       height;
-    private final int       width;
-    private final int       fontSize;
-    private final float     radius;
-    private final int       borderThickness;
-
-    private TextDrawable(Builder builder) {
-        super(builder.shape);
+    private final TextDrawableSpec spec;
+    private final RectShape        shape;
+    private final String           text;
+    private final int              height;
+    private final int              width;
+    private final int              fontSize;
+    private final float            radius;
+    private final int              borderThickness;
+
+    // shared state, copied on mutate()
+    private TextState state;
+    private Paint     textPaint;
+    private Paint     borderPaint;
+    private boolean   mutated;
+
+    // layout computed in onBoundsChange(), draw() only reads it
+    private final AvatarLayout layout     = new AvatarLayout();
+    private final RectF        borderRect = new RectF();
+
+    // pre-rendered mode
+    private final BitmapCache  cache;
+    private final TextureAtlas atlas;
+    private BitmapCache.Key cacheKey;
+
+    private TextDrawable(TextState state) {
+        super(state.shape);
+        this.state = state;
+        this.spec = state.spec;
 
         // shape properties
-        this.shape = builder.shape;
-        this.height = builder.height;
-        this.width = builder.width;
-        this.radius = builder.radius;
+        this.shape = state.shape;
+        this.height = this.spec.getHeight();
+        this.width = this.spec.getWidth();
+        this.radius = this.spec.getRadius();
 
         // text
-        this.text = builder.toUpperCase ? builder.text.toUpperCase() : builder.text;
-
-        // text paint settings
-        this.fontSize = builder.fontSize;
-        this.textPaint = new Paint();
-        this.textPaint.setColor(builder.textColor);
-        this.textPaint.setAntiAlias(true);
-        this.textPaint.setFakeBoldText(builder.isBold);
-        this.textPaint.setStyle(Paint.Style.FILL);
-        this.textPaint.setTypeface(builder.font);
-        this.textPaint.setTextAlign(Paint.Align.CENTER);
-        this.textPaint.setStrokeWidth(builder.borderThickness);
-
-        // border paint settings
-        this.borderThickness = builder.borderThickness;
-        this.borderPaint = new Paint();
-        this.borderPaint.setColor(getDarkerShade(builder.bgColor));
-        this.borderPaint.setStyle(Paint.Style.STROKE);
-        this.borderPaint.setStrokeWidth(borderThickness);
+        this.text = this.spec.getText();
+
+        // text paint & border paint, shared by all drawables of the same state
+        this.fontSize = this.spec.getFontSize();
+        this.textPaint = state.textPaint;
+        this.borderThickness = this.spec.getBorderThickness();
+        this.borderPaint = state.borderPaint;
 
         // drawable paint bgColor
         Paint paint = getPaint();
-        paint.setColor(builder.bgColor);
+        paint.setColor(this.spec.getBgColor());
+
+        this.cache = this.spec.getCache();
+        this.atlas = this.spec.getAtlas();
+
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        if (metrics != null) {
+            metrics.onDrawableCreated();
+        }
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+
+        // border & text, geometry shared with the headless renderer
+        AvatarLayout layout = this.layout;
+        layout.layout(bounds.left, bounds.top, bounds.right, bounds.bottom, this.width, this.height, this.borderThickness, this.fontSize);
+        if (this.spec.isAutoFit()) {
+            layout.setTextSize(TextFitter.fit(this.spec, layout));
+        }
+        this.borderRect.set(layout.getBorderLeft(), layout.getBorderTop(), layout.getBorderRight(), layout.getBorderBottom());
+        this.textPaint.setTextSize(layout.getTextSize());
+        layout.setFontMetrics(this.textPaint.ascent(), this.textPaint.descent());
+
+        // cache key
+        if ((this.cache != null || this.atlas != null) && bounds.width() > 0 && bounds.height() > 0) {
+            if (this.cacheKey == null || this.cacheKey.width() != bounds.width() || this.cacheKey.height() != bounds.height()) {
+                this.cacheKey = new BitmapCache.Key(this.spec, bounds.width(), bounds.height());
+            }
+        }
+        else {
+            this.cacheKey = null;
+        }
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        if (metrics == null) {
+            drawInternal(canvas);
+            return;
+        }
+        long start = System.nanoTime();
+        drawInternal(canvas);
+        metrics.onDraw(System.nanoTime() - start);
+    }
+
+    private void drawInternal(Canvas canvas) {
+        // 透明度或颜色过滤器被修改过的图像不走缓存，避免缓存的位图与实际效果不一致
+        if (this.cacheKey != null && this.textPaint.getAlpha() == 0xff && this.textPaint.getColorFilter() == null) {
+            if (this.atlas != null) {
+                TextureAtlas.Region region = this.atlas.obtain(this.cacheKey, this);
+                if (region != null) {
+                    canvas.drawBitmap(region.bitmap(), region.rect, getBounds(), null);
+                    return;
+                }
+            }
+            else {
+                drawCached(canvas, getBounds());
+                return;
+            }
+        }
+        drawShape(canvas);
+    }
+
+    /**
+     * 以(x, y)为左上角直接绘制图像，供图集光栅化使用
+     *
+     * @param canvas
+     * @param x
+     * @param y
+     */
+    void drawInto(Canvas canvas, int x, int y) {
+        Rect r = getBounds();
+        int count = canvas.save();
+        canvas.translate(x - r.left, y - r.top);
+        drawShape(canvas);
+        canvas.restoreToCount(count);
+    }
+
+    /**
+     * 以额外的透明度直接绘制背景、边框及文本，供淡入淡出使用，不需要离屏图层
+     *
+     * 第一次调用时{@link #mutate()}，之后只临时修改自己的画笔，绘制后恢复
+     *
+     * @param canvas
+     * @param alpha  0~255，与各画笔原有的透明度相乘
+     */
+    void drawWithAlpha(Canvas canvas, int alpha) {
+        mutate();
+        Paint bgPaint = getPaint();
+        int bgAlpha = bgPaint.getAlpha();
+        int borderAlpha = this.borderPaint.getAlpha();
+        int textAlpha = this.textPaint.getAlpha();
+        bgPaint.setAlpha(bgAlpha * alpha / 0xff);
+        this.borderPaint.setAlpha(borderAlpha * alpha / 0xff);
+        this.textPaint.setAlpha(textAlpha * alpha / 0xff);
+        drawShape(canvas);
+        bgPaint.setAlpha(bgAlpha);
+        this.borderPaint.setAlpha(borderAlpha);
+        this.textPaint.setAlpha(textAlpha);
+    }
+
+    /**
+     * 从缓存中取出光栅化后的位图绘制，未命中时先光栅化再放入缓存
+     *
+     * 缓存带磁盘层时不在绘制时读磁盘：本帧直接绘制形状，位图在后台加载，到达后 invalidate 重绘
+     *
+     * @param canvas
+     * @param r
+     */
+    private void drawCached(Canvas canvas, Rect r) {
+        BitmapCache.Key key = this.cacheKey;
+        Bitmap bitmap = this.cache.get(key);
+        if (bitmap == null) {
+            if (this.cache.isTiered()) {
+                this.cache.loadAsync(key, this);
+                drawShape(canvas);
+                return;
+            }
+            bitmap = rasterize(r);
+            this.cache.put(key, bitmap);
+        }
+        canvas.drawBitmap(bitmap, r.left, r.top, null);
     }
 
     /**
-     * 获取暗阴影色
+     * 将当前边界内的图像光栅化为位图
      *
-     * @param color
+     * @param r
      *
      * @return
      */
-    private int getDarkerShade(int color) {
-        return Color.rgb((int) (SHADE_FACTOR * Color.red(color)), (int) (SHADE_FACTOR * Color.green(color)), (int) (SHADE_FACTOR * Color.blue(color)));
+    private Bitmap rasterize(Rect r) {
+        Bitmap bitmap = Bitmap.createBitmap(r.width(), r.height(), Bitmap.Config.ARGB_8888);
+        Canvas bitmapCanvas = new Canvas(bitmap);
+        bitmapCanvas.translate(-r.left, -r.top);
+        drawShape(bitmapCanvas);
+        return bitmap;
     }
 
-    @Override
-    public void draw(Canvas canvas) {
+    /**
+     * 将描述光栅化为指定尺寸的位图，可在后台线程调用
+     *
+     * 画笔按描述新建（{@link TextState#unshared}），不读取池中的共享画笔：主线程随时会修改共享画笔的字号，
+     * 复制共享画笔也可能读到一半修改的状态。
+     *
+     * @param spec
+     * @param width
+     * @param height
+     *
+     * @return
+     */
+    static Bitmap render(TextDrawableSpec spec, int width, int height) {
+        TextDrawable drawable = new TextDrawable(TextState.unshared(spec));
+        drawable.mutated = true;
+        drawable.setBounds(0, 0, width, height);
+        return drawable.rasterize(drawable.getBounds());
+    }
+
+    /**
+     * 直接绘制形状、边框及文本
+     *
+     * @param canvas
+     */
+    private void drawShape(Canvas canvas) {
         super.draw(canvas);
-        Rect r = getBounds();
 
         // draw border
         if (this.borderThickness > 0) {
             drawBorder(canvas);
         }
 
-        int count = canvas.save();
-        canvas.translate(r.left, r.top);
-
-        // draw text
-        int width = this.width < 0 ? r.width() : this.width;
-        int height = this.height < 0 ? r.height() : this.height;
-        int fontSize = this.fontSize < 0 ? (Math.min(width, height) / 2) : this.fontSize;
-        this.textPaint.setTextSize(fontSize);
-        canvas.drawText(this.text, width / 2, height / 2 - ((this.textPaint.descent() + this.textPaint.ascent()) / 2), this.textPaint);
-
-        canvas.restoreToCount(count);
+        // draw text, the paint may be shared with drawables of other sizes
+        AvatarLayout layout = this.layout;
+        if (this.textPaint.getTextSize() != layout.getTextSize()) {
+            this.textPaint.setTextSize(layout.getTextSize());
+        }
+        canvas.drawText(this.text, layout.getTextX(), layout.getTextY(), this.textPaint);
     }
 
     private void drawBorder(Canvas canvas) {
-        RectF rect = new RectF(getBounds());
-        rect.inset(this.borderThickness / 2, this.borderThickness / 2);
+        RectF rect = this.borderRect;
 
         if (this.shape instanceof OvalShape) {
             canvas.drawOval(rect, this.borderPaint);
@@ -121,16 +269,83 @@ public class TextDrawable extends ShapeDrawable {
 
     @Override
     public void setAlpha(int alpha) {
-        this.textPaint.setAlpha(alpha);
+        if (this.textPaint.getAlpha() != alpha) {
+            mutate();
+            this.textPaint.setAlpha(alpha);
+        }
     }
 
     @Override
     public void setColorFilter(ColorFilter cf) {
-        this.textPaint.setColorFilter(cf);
+        if (this.textPaint.getColorFilter() != cf) {
+            mutate();
+            this.textPaint.setColorFilter(cf);
+        }
+    }
+
+    /**
+     * 文本的透明度，参见{@link #setAlpha(int)}
+     */
+    @Override
+    public int getAlpha() {
+        return this.textPaint.getAlpha();
+    }
+
+    @Override
+    public ColorFilter getColorFilter() {
+        return this.textPaint.getColorFilter();
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return this.state;
+    }
+
+    /**
+     * 写时复制：共享状态的图像在修改透明度或颜色过滤器前复制一份自己的状态，不影响其他图像
+     *
+     * @return
+     */
+    @Override
+    public Drawable mutate() {
+        if (!this.mutated && super.mutate() == this) {
+            this.state = new TextState(this.state);
+            this.textPaint = this.state.textPaint;
+            this.borderPaint = this.state.borderPaint;
+            this.mutated = true;
+        }
+        return this;
     }
 
     @Override
     public int getOpacity() {
+        return resolveOpacity(this.spec.getShapeType(), this.spec.getBgColor(), this.borderThickness, this.text, this.textPaint.getAlpha());
+    }
+
+    /**
+     * 计算不透明度
+     *
+     * 背景填满整个边界，只有矩形且背景色不透明时才是 OPAQUE；圆形、圆角矩形的角落露出底色，为 TRANSLUCENT。
+     * setAlpha、setColorFilter 只作用于文本，文本画在背景之上，不会让不透明的背景变透明；
+     * 只有背景、边框、文本都不可见时才是 TRANSPARENT。
+     *
+     * @param shapeType       形状类型
+     * @param bgColor         背景色
+     * @param borderThickness 边框宽度
+     * @param text            文本
+     * @param textAlpha       文本透明度
+     *
+     * @return
+     */
+    static int resolveOpacity(int shapeType, int bgColor, int borderThickness, String text, int textAlpha) {
+        int bgAlpha = bgColor >>> 24;
+        if (bgAlpha == 0xff && shapeType == TextDrawableSpec.SHAPE_RECT) {
+            return PixelFormat.OPAQUE;
+        }
+        boolean textVisible = textAlpha != 0 && text != null && text.length() > 0;
+        if (bgAlpha == 0 && borderThickness <= 0 && !textVisible) {
+            return PixelFormat.TRANSPARENT;
+        }
         return PixelFormat.TRANSLUCENT;
     }
 
@@ -144,37 +359,121 @@ public class TextDrawable extends ShapeDrawable {
         return this.height;
     }
 
+    /**
+     * 获取文本图像描述
+     *
+     * @return
+     */
+    public TextDrawableSpec getSpec() {
+        return this.spec;
+    }
+
     public static IShapeBuilder builder() {
         return new Builder();
     }
 
+    /**
+     * 根据描述创建文本图像，形状为新建，画笔取自{@link PaintPool}
+     *
+     * @param spec
+     *
+     * @return
+     */
+    public static TextDrawable create(TextDrawableSpec spec) {
+        return new TextDrawable(new TextState(spec));
+    }
+
+    /**
+     * 共享状态：文本图像描述、形状、文本画笔及边框画笔
+     *
+     * 同一状态创建的文本图像共享画笔及形状，参见{@link TextDrawableFactory}，调用{@link #mutate()}后图像持有自己的状态
+     */
+    static final class TextState extends ConstantState {
+
+        final TextDrawableSpec spec;
+        final RectShape        shape;
+        final Paint            textPaint;
+        final Paint            borderPaint;
+
+        TextState(TextDrawableSpec spec) {
+            // text paint & border paint, taken from the process-wide pool
+            this(spec, PaintPool.textPaint(spec.getFont(), spec.isBold(), spec.getTextColor(), spec.getBorderThickness()), PaintPool.borderPaint(spec.getBorderColor(), spec.getBorderThickness()));
+        }
+
+        private TextState(TextDrawableSpec spec, Paint textPaint, Paint borderPaint) {
+            this.spec = spec;
+            this.shape = spec.createShape();
+            this.textPaint = textPaint;
+            this.borderPaint = borderPaint;
+        }
+
+        TextState(TextState orig) {
+            this.spec = orig.spec;
+            this.shape = orig.shape;
+            this.textPaint = new Paint(orig.textPaint);
+            this.borderPaint = new Paint(orig.borderPaint);
+        }
+
+        /**
+         * 不共享的状态：画笔按描述新建，不经过画笔池，供后台线程使用
+         *
+         * @param spec
+         *
+         * @return
+         */
+        static TextState unshared(TextDrawableSpec spec) {
+            return new TextState(spec, PaintPool.newTextPaint(spec.getFont(), spec.isBold(), spec.getTextColor(), spec.getBorderThickness()), PaintPool.newBorderPaint(spec.getBorderColor(), spec.getBorderThickness()));
+        }
+
+        @Override
+        public TextDrawable newDrawable() {
+            return new TextDrawable(this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
+    }
+
     public static class Builder implements IConfigBuilder, IShapeBuilder, IBuilder {
 
-        private String    text;
-        private int       textColor;
-        private int       bgColor;
-        private int       borderThickness;
-        private int       width;
-        private int       height;
-        private int       fontSize;
-        private boolean   isBold;
-        private boolean   toUpperCase;
-        private float     radius;
-        private Typeface  font;
-        private RectShape shape;
+        private int               textColor;
+        private int               borderThickness;
+        private int               width;
+        private int               height;
+        private int               fontSize;
+        private boolean           isBold;
+        private boolean           autoFit;
+        private boolean           toUpperCase;
+        private float             radius;
+        private Typeface          font;
+        private int               shapeType;
+        private BitmapCache       cache;
+        private TextureAtlas      atlas;
+        private InitialsExtractor initials;
+        private ColorGenerator    palette;
+        private boolean           hasTextColor;
 
         private Builder() {
-            this.text = "";
-            this.bgColor = Color.GRAY;
             this.textColor = Color.WHITE;
             this.borderThickness = 0;
             this.width = -1;
             this.height = -1;
-            this.shape = new RectShape();
-            this.font = Typeface.create("sans-serif-light", Typeface.NORMAL);
+            this.shapeType = TextDrawableSpec.SHAPE_RECT;
+            this.font = PaintPool.typeface("sans-serif-light", Typeface.NORMAL);
             this.fontSize = -1;
             this.isBold = false;
+            this.autoFit = false;
             this.toUpperCase = false;
+            this.initials = InitialsExtractor.DEFAULT;
+            this.palette = ColorGenerator.MATERIAL;
+            this.hasTextColor = false;
+
+            TextDrawableMetrics metrics = TextDrawableMetrics.get();
+            if (metrics != null) {
+                metrics.onBuilderCreated();
+            }
         }
 
         public IConfigBuilder width(int width) {
@@ -189,6 +488,7 @@ public class TextDrawable extends ShapeDrawable {
 
         public IConfigBuilder textColor(int color) {
             this.textColor = color;
+            this.hasTextColor = true;
             return this;
         }
 
@@ -217,6 +517,31 @@ public class TextDrawable extends ShapeDrawable {
             return this;
         }
 
+        public IConfigBuilder autoFit() {
+            this.autoFit = true;
+            return this;
+        }
+
+        public IConfigBuilder useCache(BitmapCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public IConfigBuilder useAtlas(TextureAtlas atlas) {
+            this.atlas = atlas;
+            return this;
+        }
+
+        public IConfigBuilder initials(InitialsExtractor initials) {
+            this.initials = initials;
+            return this;
+        }
+
+        public IConfigBuilder palette(ColorGenerator palette) {
+            this.palette = palette;
+            return this;
+        }
+
         @Override
         public IConfigBuilder beginConfig() {
             return this;
@@ -229,21 +554,20 @@ public class TextDrawable extends ShapeDrawable {
 
         @Override
         public IBuilder rect() {
-            this.shape = new RectShape();
+            this.shapeType = TextDrawableSpec.SHAPE_RECT;
             return this;
         }
 
         @Override
         public IBuilder round() {
-            this.shape = new OvalShape();
+            this.shapeType = TextDrawableSpec.SHAPE_ROUND;
             return this;
         }
 
         @Override
         public IBuilder roundRect(int radius) {
             this.radius = radius;
-            float[] radii = { radius, radius, radius, radius, radius, radius, radius, radius };
-            this.shape = new RoundRectShape(radii, null, null);
+            this.shapeType = TextDrawableSpec.SHAPE_ROUND_RECT;
             return this;
         }
 
@@ -265,15 +589,49 @@ public class TextDrawable extends ShapeDrawable {
             return build(text, textColor, bgColor);
         }
 
+        @Override
+        public TextDrawable buildRect(String text, int paletteIndex) {
+            rect();
+            return build(text, paletteIndex);
+        }
+
+        @Override
+        public TextDrawable buildRoundRect(String text, int paletteIndex, int radius) {
+            roundRect(radius);
+            return build(text, paletteIndex);
+        }
+
+        @Override
+        public TextDrawable buildRound(String text, int paletteIndex) {
+            round();
+            return build(text, paletteIndex);
+        }
+
         @Override
         public TextDrawable build(String text, int textColor, int bgColor) {
-            if (text != null && !"".equals(text)) {
-                text = text.substring(0, 1);    // 截取第一个字符
-            }
-            this.text = text;
-            this.textColor = textColor;
-            this.bgColor = bgColor;
-            return new TextDrawable(this);
+            return create(spec(text, textColor, bgColor));
+        }
+
+        @Override
+        public TextDrawable build(String text, int paletteIndex) {
+            return create(spec(text, paletteIndex));
+        }
+
+        @Override
+        public TextDrawableSpec spec(String text, int textColor, int bgColor) {
+            return new TextDrawableSpec(this.initials.extract(text, this.toUpperCase), textColor, bgColor, ColorGenerator.darkerShade(bgColor), this.borderThickness, this.width, this.height, this.fontSize, this.isBold, this.autoFit, this.font, this.shapeType, this.radius, this.cache, this.atlas);
+        }
+
+        @Override
+        public TextDrawableSpec spec(String text, int paletteIndex) {
+            ColorGenerator palette = this.palette;
+            int textColor = this.hasTextColor ? this.textColor : palette.getTextColor(paletteIndex);
+            return new TextDrawableSpec(this.initials.extract(text, this.toUpperCase), textColor, palette.getColorAt(paletteIndex), palette.getBorderColor(paletteIndex), this.borderThickness, this.width, this.height, this.fontSize, this.isBold, this.autoFit, this.font, this.shapeType, this.radius, this.cache, this.atlas);
+        }
+
+        @Override
+        public TextDrawableTemplate toTemplate() {
+            return new TextDrawableTemplate(this.borderThickness, this.width, this.height, this.fontSize, this.isBold, this.autoFit, this.toUpperCase, this.radius, this.font, this.shapeType, this.cache, this.atlas, this.initials, this.palette, this.hasTextColor, this.textColor);
         }
     }
 
@@ -294,11 +652,57 @@ public class TextDrawable extends ShapeDrawable {
 
         IConfigBuilder toUpperCase();
 
+        /**
+         * 自动缩小字号，使多个字母的文本完整显示在矩形、圆形或圆角矩形内，字号不超过 fontSize（未设置时为默认字号）
+         */
+        IConfigBuilder autoFit();
+
+        /**
+         * 预渲染模式：首次绘制时光栅化为位图并放入缓存，之后直接绘制缓存的位图
+         */
+        IConfigBuilder useCache(BitmapCache cache);
+
+        /**
+         * 图集模式：图像光栅化到共享的图集位图中，绘制时只绘制图集的子区域，适用于大量同尺寸头像的网格
+         */
+        IConfigBuilder useAtlas(TextureAtlas atlas);
+
+        /**
+         * 首字母提取规则，默认为{@link InitialsExtractor#DEFAULT}，即第一个字素
+         */
+        IConfigBuilder initials(InitialsExtractor initials);
+
+        /**
+         * 调色板，按下标创建图像时使用，默认为{@link ColorGenerator#MATERIAL}；
+         * 未设置 textColor 时文本颜色取调色板中对比度较高的颜色
+         */
+        IConfigBuilder palette(ColorGenerator palette);
+
         IShapeBuilder endConfig();
     }
 
     public interface IBuilder {
         TextDrawable build(String text, int textColor, int bgColor);
+
+        /**
+         * 只生成文本图像描述，不创建图像，配合{@link TextDrawableFactory}共享相同描述的图像状态
+         */
+        TextDrawableSpec spec(String text, int textColor, int bgColor);
+
+        /**
+         * 按调色板下标创建图像，背景色、边框色及文本颜色取自调色板预先计算的颜色
+         *
+         * @param text
+         * @param paletteIndex 调色板下标，如{@link ColorGenerator#getColorIndex(Object)}
+         */
+        TextDrawable build(String text, int paletteIndex);
+
+        TextDrawableSpec spec(String text, int paletteIndex);
+
+        /**
+         * 生成不可变模板，可在多个线程间共享
+         */
+        TextDrawableTemplate toTemplate();
     }
 
     public interface IShapeBuilder {
@@ -316,5 +720,11 @@ public class TextDrawable extends ShapeDrawable {
         TextDrawable buildRoundRect(String text, int textColor, int bgColor, int radius);
 
         TextDrawable buildRound(String text, int textColor, int bgColor);
+
+        TextDrawable buildRect(String text, int paletteIndex);
+
+        TextDrawable buildRoundRect(String text, int paletteIndex, int radius);
+
+        TextDrawable buildRound(String text, int paletteIndex);
     }
 }
\ No newline at end of file
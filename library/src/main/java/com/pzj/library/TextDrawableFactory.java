@@ -0,0 +1,108 @@
+package com.pzj.library;
+
+import android.support.v4.util.LruCache;
+
+/**
+ * 文本图像工厂
+ *
+ * 按描述缓存共享状态，相同描述的文本图像共享同一组画笔及形状，只新建轻量的图像对象。
+ * 列表滚动时反复绑定相同的名字，不再重复创建画笔及形状。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class TextDrawableFactory implements Trimmable {
+
+    private final LruCache<TextDrawableSpec, TextDrawable.TextState> mStates;
+
+    private int mLimit;
+
+    /**
+     * 创建文本图像工厂
+     *
+     * @param maxStates 最多缓存的共享状态个数
+     *
+     * @return
+     */
+    public static TextDrawableFactory create(int maxStates) {
+        return new TextDrawableFactory(maxStates);
+    }
+
+    private TextDrawableFactory(int maxStates) {
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException("maxStates <= 0");
+        }
+        this.mStates = new LruCache<TextDrawableSpec, TextDrawable.TextState>(maxStates);
+        this.mLimit = maxStates;
+    }
+
+    /**
+     * 获取文本图像，相同描述的图像共享状态
+     *
+     * @param spec
+     *
+     * @return
+     */
+    public TextDrawable obtain(TextDrawableSpec spec) {
+        return intern(spec).newDrawable();
+    }
+
+    synchronized TextDrawable.TextState intern(TextDrawableSpec spec) {
+        TextDrawable.TextState state = this.mStates.get(spec);
+        if (state == null) {
+            state = new TextDrawable.TextState(spec);
+            this.mStates.put(spec, state);
+            if (this.mLimit < this.mStates.maxSize()) {
+                this.mStates.trimToSize(this.mLimit);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * 按比例收缩共享状态，已创建的图像继续持有自己的状态
+     *
+     * @param fraction
+     *
+     * @return 共享状态的内存无法估算，返回0
+     */
+    @Override
+    public synchronized long trimToFraction(float fraction) {
+        this.mLimit = Math.max(1, (int) (this.mStates.maxSize() * fraction));
+        if (fraction <= 0f) {
+            this.mStates.evictAll();
+        }
+        else {
+            this.mStates.trimToSize(this.mLimit);
+        }
+        return 0;
+    }
+
+    /**
+     * 清空缓存的共享状态
+     */
+    public void evictAll() {
+        this.mStates.evictAll();
+    }
+
+    /**
+     * 当前缓存的共享状态个数
+     */
+    public int size() {
+        return this.mStates.size();
+    }
+
+    /**
+     * 命中次数
+     */
+    public int hitCount() {
+        return this.mStates.hitCount();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public int missCount() {
+        return this.mStates.missCount();
+    }
+}
@@ -0,0 +1,79 @@
+package com.pzj.library;
+
+/**
+ * 文本图像渲染指标
+ *
+ * 全局注册一个实例后，库在绘制、构造、缓存命中及位图分配/释放时回调对应方法，默认实现为空。
+ * 未注册时每个埋点只有一次 volatile 读；把{@link #ENABLED}改为 false 重新编译，埋点代码会被编译器整体去掉。
+ * 回调可能来自任意线程（参见{@link TextDrawableRenderer}），实现需要线程安全，参见{@link MetricsRecorder}。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public abstract class TextDrawableMetrics {
+
+    /**
+     * 编译期开关
+     */
+    public static final boolean ENABLED = true;
+
+    private static volatile TextDrawableMetrics sMetrics;
+
+    /**
+     * 注册全局指标，传 null 取消注册
+     *
+     * @param metrics
+     */
+    public static void register(TextDrawableMetrics metrics) {
+        sMetrics = metrics;
+    }
+
+    /**
+     * 获取全局指标，未注册时返回 null
+     *
+     * @return
+     */
+    public static TextDrawableMetrics get() {
+        return ENABLED ? sMetrics : null;
+    }
+
+    /**
+     * 一次 draw 调用完成
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void onDraw(long nanos) {
+    }
+
+    /**
+     * 创建了一个 TextDrawable
+     */
+    public void onDrawableCreated() {
+    }
+
+    /**
+     * 创建了一个 TextDrawable.Builder
+     */
+    public void onBuilderCreated() {
+    }
+
+    /**
+     * 位图缓存或图集命中
+     */
+    public void onCacheHit() {
+    }
+
+    /**
+     * 位图缓存或图集未命中
+     */
+    public void onCacheMiss() {
+    }
+
+    /**
+     * 缓存或图集持有的位图字节数变化
+     *
+     * @param deltaBytes 新增为正，释放为负
+     */
+    public void onBitmapBytesChanged(long deltaBytes) {
+    }
+}
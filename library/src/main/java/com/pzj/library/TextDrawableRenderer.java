@@ -0,0 +1,233 @@
+package com.pzj.library;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文本图像批量预渲染
+ *
+ * 在后台线程池中把一批文本图像描述光栅化为位图，渲染完成后在主线程回调，主线程只需绘制位图。
+ * 描述配置了{@link BitmapCache}时，渲染结果同时放入缓存，之后绘制对应的 TextDrawable 直接命中缓存。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class TextDrawableRenderer {
+
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Handler            mMainHandler;
+    private final int                mThreadCount;
+
+    /**
+     * 创建预渲染器，线程数为 CPU 核数
+     *
+     * @return
+     */
+    public static TextDrawableRenderer create() {
+        return create(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 创建预渲染器
+     *
+     * @param threadCount 后台线程数
+     *
+     * @return
+     */
+    public static TextDrawableRenderer create(int threadCount) {
+        return new TextDrawableRenderer(threadCount);
+    }
+
+    private TextDrawableRenderer(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("threadCount <= 0");
+        }
+        this.mThreadCount = threadCount;
+        this.mExecutor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new BackgroundThreadFactory("TextDrawableRenderer"));
+        this.mExecutor.allowCoreThreadTimeOut(true);
+        this.mMainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * 批量渲染，描述按线程数分片并行渲染，全部完成后在主线程回调，结果顺序与描述顺序一致
+     *
+     * @param specs    文本图像描述，可由{@link TextDrawable.IBuilder#spec(String, int, int)}生成
+     * @param width    位图宽度
+     * @param height   位图高度
+     * @param callback 主线程回调
+     *
+     * @return 本批次，可取消
+     */
+    public Batch render(List<TextDrawableSpec> specs, int width, int height, Callback callback) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width <= 0 || height <= 0");
+        }
+        specs = new ArrayList<TextDrawableSpec>(specs);
+        Batch batch = new Batch(specs.size(), callback);
+        if (specs.isEmpty()) {
+            batch.deliver();
+            return batch;
+        }
+
+        int chunkSize = chunkSize(specs.size(), this.mThreadCount);
+        int chunkCount = (specs.size() + chunkSize - 1) / chunkSize;
+        batch.remaining.set(chunkCount);
+        for (int start = 0; start < specs.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, specs.size());
+            batch.futures.add(this.mExecutor.submit(new RenderTask(batch, specs, start, end, width, height)));
+        }
+        return batch;
+    }
+
+    /**
+     * 分片大小：描述平均分给每个线程，最后一片可能较小
+     *
+     * @param count       描述个数
+     * @param threadCount 线程数
+     *
+     * @return
+     */
+    static int chunkSize(int count, int threadCount) {
+        return (count + threadCount - 1) / threadCount;
+    }
+
+    /**
+     * 关闭后台线程池，未完成的批次不再回调
+     */
+    public void shutdown() {
+        this.mExecutor.shutdownNow();
+    }
+
+    /**
+     * 渲染单个描述，命中缓存（内存或磁盘）时直接返回缓存的位图，会阻塞在磁盘 I/O 上，只在后台线程调用
+     */
+    static Bitmap renderOne(TextDrawableSpec spec, int width, int height) {
+        BitmapCache cache = spec.getCache();
+        if (cache == null) {
+            return TextDrawable.render(spec, width, height);
+        }
+
+        return cache.load(new BitmapCache.Key(spec, width, height));
+    }
+
+    /**
+     * 渲染完成回调，在主线程执行
+     */
+    public interface Callback {
+
+        /**
+         * @param bitmaps 渲染结果，顺序与描述顺序一致；渲染失败的位置为 null，异常见{@link Batch#getError(int)}
+         */
+        void onRendered(List<Bitmap> bitmaps);
+    }
+
+    /**
+     * 一次批量渲染
+     */
+    public final class Batch {
+
+        private final Bitmap[]        results;
+        private final Throwable[]     errors;
+        private final Callback        callback;
+        private final AtomicInteger   remaining = new AtomicInteger();
+        private final AtomicBoolean   cancelled = new AtomicBoolean();
+        private final List<Future<?>> futures   = new ArrayList<Future<?>>();
+
+        private Batch(int count, Callback callback) {
+            this.results = new Bitmap[count];
+            this.errors = new Throwable[count];
+            this.callback = callback;
+        }
+
+        /**
+         * 取消本批次，已开始渲染的分片在当前描述完成后停止，不再回调
+         */
+        public void cancel() {
+            this.cancelled.set(true);
+            for (Future<?> future : this.futures) {
+                future.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled.get();
+        }
+
+        /**
+         * 渲染失败的描述对应的异常，结果中该位置为 null；成功时返回 null。回调之后才有意义
+         *
+         * @param index 描述的位置
+         *
+         * @return
+         */
+        public Throwable getError(int index) {
+            return this.errors[index];
+        }
+
+        private void onChunkFinished() {
+            if (this.remaining.decrementAndGet() == 0) {
+                deliver();
+            }
+        }
+
+        private void deliver() {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!isCancelled() && callback != null) {
+                        callback.onRendered(Arrays.asList(results));
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class RenderTask implements Runnable {
+
+        private final Batch                  batch;
+        private final List<TextDrawableSpec> specs;
+        private final int                    start;
+        private final int                    end;
+        private final int                    width;
+        private final int                    height;
+
+        RenderTask(Batch batch, List<TextDrawableSpec> specs, int start, int end, int width, int height) {
+            this.batch = batch;
+            this.specs = specs;
+            this.start = start;
+            this.end = end;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = this.start; i < this.end && !this.batch.isCancelled(); i++) {
+                    try {
+                        this.batch.results[i] = renderOne(this.specs.get(i), this.width, this.height);
+                    }
+                    catch (RuntimeException e) {
+                        // one bad spec only fails its own slot
+                        this.batch.errors[i] = e;
+                    }
+                }
+            }
+            finally {
+                this.batch.onChunkFinished();
+            }
+        }
+    }
+}
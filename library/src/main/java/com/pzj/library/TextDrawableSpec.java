@@ -0,0 +1,204 @@
+package com.pzj.library;
+
+import android.graphics.Typeface;
+import android.graphics.drawable.shapes.OvalShape;
+import android.graphics.drawable.shapes.RectShape;
+import android.graphics.drawable.shapes.RoundRectShape;
+
+/**
+ * 文本图像描述
+ *
+ * 由 TextDrawable.Builder 的配置生成的不可变对象，相同描述的文本图像绘制效果完全相同，可作为共享状态及缓存的键
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class TextDrawableSpec {
+
+    public static final int SHAPE_RECT       = AvatarLayout.SHAPE_RECT;
+    public static final int SHAPE_ROUND      = AvatarLayout.SHAPE_ROUND;
+    public static final int SHAPE_ROUND_RECT = AvatarLayout.SHAPE_ROUND_RECT;
+
+    private final String       text;
+    private final int          textColor;
+    private final int          bgColor;
+    private final int          borderColor;
+    private final int          borderThickness;
+    private final int          width;
+    private final int          height;
+    private final int          fontSize;
+    private final boolean      isBold;
+    private final boolean      autoFit;
+    private final Typeface     font;
+    private final int          shapeType;
+    private final float        radius;
+    private final BitmapCache  cache;
+    private final TextureAtlas atlas;
+    private final int          hashCode;
+
+    TextDrawableSpec(String text, int textColor, int bgColor, int borderColor, int borderThickness, int width, int height, int fontSize, boolean isBold, boolean autoFit, Typeface font, int shapeType, float radius, BitmapCache cache, TextureAtlas atlas) {
+        this.text = text;
+        this.textColor = textColor;
+        this.bgColor = bgColor;
+        this.borderColor = borderColor;
+        this.borderThickness = borderThickness;
+        this.width = width;
+        this.height = height;
+        this.fontSize = fontSize;
+        this.isBold = isBold;
+        this.autoFit = autoFit;
+        this.font = font;
+        this.shapeType = shapeType;
+        this.radius = radius;
+        this.cache = cache;
+        this.atlas = atlas;
+
+        int h = text != null ? text.hashCode() : 0;
+        h = 31 * h + textColor;
+        h = 31 * h + bgColor;
+        h = 31 * h + borderThickness;
+        h = 31 * h + width;
+        h = 31 * h + height;
+        h = 31 * h + fontSize;
+        h = 31 * h + (isBold ? 1 : 0);
+        h = 31 * h + (autoFit ? 1 : 0);
+        h = 31 * h + (font != null ? font.hashCode() : 0);
+        h = 31 * h + shapeType;
+        h = 31 * h + Float.floatToIntBits(radius);
+        h = 31 * h + (cache != null ? System.identityHashCode(cache) : 0);
+        h = 31 * h + (atlas != null ? System.identityHashCode(atlas) : 0);
+        this.hashCode = h;
+    }
+
+    /**
+     * 相同形状、尺寸及字体，替换文本及颜色
+     *
+     * @param text
+     * @param textColor
+     * @param bgColor
+     *
+     * @return
+     */
+    TextDrawableSpec derive(String text, int textColor, int bgColor) {
+        return new TextDrawableSpec(text, textColor, bgColor, ColorGenerator.darkerShade(bgColor), this.borderThickness, this.width, this.height, this.fontSize, this.isBold, this.autoFit, this.font, this.shapeType, this.radius, this.cache, this.atlas);
+    }
+
+    /**
+     * 根据形状类型创建形状
+     *
+     * @return
+     */
+    RectShape createShape() {
+        switch (this.shapeType) {
+            case SHAPE_ROUND:
+                return new OvalShape();
+            case SHAPE_ROUND_RECT:
+                float[] radii = { this.radius, this.radius, this.radius, this.radius, this.radius, this.radius, this.radius, this.radius };
+                return new RoundRectShape(radii, null, null);
+            default:
+                return new RectShape();
+        }
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public int getTextColor() {
+        return this.textColor;
+    }
+
+    public int getBgColor() {
+        return this.bgColor;
+    }
+
+    /**
+     * 边框颜色，即背景色的暗阴影，由背景色决定，不参与比较
+     */
+    public int getBorderColor() {
+        return this.borderColor;
+    }
+
+    public int getBorderThickness() {
+        return this.borderThickness;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getFontSize() {
+        return this.fontSize;
+    }
+
+    public boolean isBold() {
+        return this.isBold;
+    }
+
+    /**
+     * 是否自动缩小字号，使文本完整显示在形状内，字号不超过{@link #getFontSize()}（或默认字号）
+     */
+    public boolean isAutoFit() {
+        return this.autoFit;
+    }
+
+    public Typeface getFont() {
+        return this.font;
+    }
+
+    public int getShapeType() {
+        return this.shapeType;
+    }
+
+    public float getRadius() {
+        return this.radius;
+    }
+
+    public BitmapCache getCache() {
+        return this.cache;
+    }
+
+    public TextureAtlas getAtlas() {
+        return this.atlas;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TextDrawableSpec)) {
+            return false;
+        }
+        TextDrawableSpec other = (TextDrawableSpec) o;
+        return this.hashCode == other.hashCode
+            && this.textColor == other.textColor
+            && this.bgColor == other.bgColor
+            && this.borderThickness == other.borderThickness
+            && this.width == other.width
+            && this.height == other.height
+            && this.fontSize == other.fontSize
+            && this.isBold == other.isBold
+            && this.autoFit == other.autoFit
+            && this.shapeType == other.shapeType
+            && this.radius == other.radius
+            && this.cache == other.cache
+            && this.atlas == other.atlas
+            && (this.text == null ? other.text == null : this.text.equals(other.text))
+            && (this.font == null ? other.font == null : this.font.equals(other.font));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "TextDrawableSpec[text=" + this.text + ",shape=" + this.shapeType + ",textColor=#" + Integer.toHexString(this.textColor) + ",bgColor=#" + Integer.toHexString(this.bgColor) + "]";
+    }
+}
@@ -0,0 +1,78 @@
+package com.pzj.library;
+
+import android.graphics.Typeface;
+
+/**
+ * 文本图像模板
+ *
+ * Builder 配置的不可变快照，由{@link TextDrawable.IBuilder#toTemplate()}生成。
+ * 模板不再被修改，任意多个线程可以同时调用{@link #build(String, int, int)}，无需加锁，也不复制配置。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public final class TextDrawableTemplate implements TextDrawable.IBuilder {
+
+    private final int               borderThickness;
+    private final int               width;
+    private final int               height;
+    private final int               fontSize;
+    private final boolean           isBold;
+    private final boolean           autoFit;
+    private final boolean           toUpperCase;
+    private final float             radius;
+    private final Typeface          font;
+    private final int               shapeType;
+    private final BitmapCache       cache;
+    private final TextureAtlas      atlas;
+    private final InitialsExtractor initials;
+    private final ColorGenerator    palette;
+    private final boolean           hasTextColor;
+    private final int               textColor;
+
+    TextDrawableTemplate(int borderThickness, int width, int height, int fontSize, boolean isBold, boolean autoFit, boolean toUpperCase, float radius, Typeface font, int shapeType, BitmapCache cache, TextureAtlas atlas, InitialsExtractor initials, ColorGenerator palette, boolean hasTextColor, int textColor) {
+        this.borderThickness = borderThickness;
+        this.width = width;
+        this.height = height;
+        this.fontSize = fontSize;
+        this.isBold = isBold;
+        this.autoFit = autoFit;
+        this.toUpperCase = toUpperCase;
+        this.radius = radius;
+        this.font = font;
+        this.shapeType = shapeType;
+        this.cache = cache;
+        this.atlas = atlas;
+        this.initials = initials;
+        this.palette = palette;
+        this.hasTextColor = hasTextColor;
+        this.textColor = textColor;
+    }
+
+    @Override
+    public TextDrawable build(String text, int textColor, int bgColor) {
+        return TextDrawable.create(spec(text, textColor, bgColor));
+    }
+
+    @Override
+    public TextDrawableSpec spec(String text, int textColor, int bgColor) {
+        return new TextDrawableSpec(this.initials.extract(text, this.toUpperCase), textColor, bgColor, ColorGenerator.darkerShade(bgColor), this.borderThickness, this.width, this.height, this.fontSize, this.isBold, this.autoFit, this.font, this.shapeType, this.radius, this.cache, this.atlas);
+    }
+
+    @Override
+    public TextDrawable build(String text, int paletteIndex) {
+        return TextDrawable.create(spec(text, paletteIndex));
+    }
+
+    @Override
+    public TextDrawableSpec spec(String text, int paletteIndex) {
+        ColorGenerator palette = this.palette;
+        int textColor = this.hasTextColor ? this.textColor : palette.getTextColor(paletteIndex);
+        return new TextDrawableSpec(this.initials.extract(text, this.toUpperCase), textColor, palette.getColorAt(paletteIndex), palette.getBorderColor(paletteIndex), this.borderThickness, this.width, this.height, this.fontSize, this.isBold, this.autoFit, this.font, this.shapeType, this.radius, this.cache, this.atlas);
+    }
+
+    @Override
+    public TextDrawableTemplate toTemplate() {
+        return this;
+    }
+}
@@ -0,0 +1,126 @@
+package com.pzj.library;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.v4.util.LruCache;
+
+/**
+ * 自动适配字号
+ *
+ * 按(文本、字体、粗体、形状、尺寸、边框、最大字号)缓存{@link AvatarLayout#fitTextSize}的结果，
+ * 每个不同的头像只测量一次文本、只做一次二分查找，之后的图像及绘制直接取缓存的字号。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+final class TextFitter {
+
+    private static final int   MAX_ENTRIES    = 256;
+    private static final float REFERENCE_SIZE = 100f;
+
+    private static final LruCache<Key, Float> sSizes = new LruCache<Key, Float>(MAX_ENTRIES);
+
+    // measuring paint, guarded by itself
+    private static final Paint sPaint = new Paint();
+
+    private TextFitter() {
+    }
+
+    /**
+     * 计算自动适配后的字号，不超过布局当前的字号
+     *
+     * @param spec
+     * @param layout 已调用{@link AvatarLayout#layout}的布局
+     *
+     * @return
+     */
+    static float fit(TextDrawableSpec spec, AvatarLayout layout) {
+        String text = spec.getText();
+        float maxSize = layout.getTextSize();
+        if (text == null || text.length() == 0 || maxSize <= 0) {
+            return maxSize;
+        }
+        Key key = new Key(text, spec.getFont(), spec.isBold(), spec.getShapeType(), spec.getRadius(), layout.getWidth(), layout.getHeight(), spec.getBorderThickness(), maxSize);
+        Float size = sSizes.get(key);
+        if (size == null) {
+            float widthPerPx;
+            float heightPerPx;
+            synchronized (sPaint) {
+                sPaint.setTypeface(spec.getFont());
+                sPaint.setFakeBoldText(spec.isBold());
+                sPaint.setTextSize(REFERENCE_SIZE);
+                widthPerPx = sPaint.measureText(text) / REFERENCE_SIZE;
+                heightPerPx = (sPaint.descent() - sPaint.ascent()) / REFERENCE_SIZE;
+            }
+            size = AvatarLayout.fitTextSize(spec.getShapeType(), spec.getRadius(), layout.getWidth(), layout.getHeight(), spec.getBorderThickness(), maxSize, widthPerPx, heightPerPx);
+            sSizes.put(key, size);
+        }
+        return size;
+    }
+
+    /**
+     * 清空缓存
+     */
+    static void evictAll() {
+        sSizes.evictAll();
+    }
+
+    private static final class Key {
+
+        private final String   text;
+        private final Typeface font;
+        private final boolean  isBold;
+        private final int      shapeType;
+        private final float    radius;
+        private final int      width;
+        private final int      height;
+        private final int      borderThickness;
+        private final float    maxSize;
+
+        Key(String text, Typeface font, boolean isBold, int shapeType, float radius, int width, int height, int borderThickness, float maxSize) {
+            this.text = text;
+            this.font = font;
+            this.isBold = isBold;
+            this.shapeType = shapeType;
+            this.radius = radius;
+            this.width = width;
+            this.height = height;
+            this.borderThickness = borderThickness;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return this.isBold == other.isBold
+                && this.shapeType == other.shapeType
+                && this.radius == other.radius
+                && this.width == other.width
+                && this.height == other.height
+                && this.borderThickness == other.borderThickness
+                && this.maxSize == other.maxSize
+                && this.text.equals(other.text)
+                && (this.font == null ? other.font == null : this.font.equals(other.font));
+        }
+
+        @Override
+        public int hashCode() {
+            int h = this.text.hashCode();
+            h = 31 * h + (this.font != null ? this.font.hashCode() : 0);
+            h = 31 * h + (this.isBold ? 1 : 0);
+            h = 31 * h + this.shapeType;
+            h = 31 * h + Float.floatToIntBits(this.radius);
+            h = 31 * h + this.width;
+            h = 31 * h + this.height;
+            h = 31 * h + this.borderThickness;
+            h = 31 * h + Float.floatToIntBits(this.maxSize);
+            return h;
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.pzj.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.view.animation.AnimationUtils;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 文本图像纹理图集
+ *
+ * 把尺寸相同的文本图像光栅化后打包到共享的大位图（页）中，每个 TextDrawable 只绘制图集中对应的子区域，
+ * 网格中大量头像都来自同一张位图，绘制时可以合并为少量绘制调用。
+ *
+ * 每页只存放一种尺寸的图像，按网格划分槽位。图集已满时按最近最少使用淘汰槽位；
+ * {@link #compact()}把占用率低的页中的图像搬到同尺寸的其他页，并回收空页。
+ *
+ * 每个区域记录使用它的图像（弱引用）。区域被淘汰、搬走或所在页被移除时，这些图像会被 invalidate，
+ * 硬件加速下录制的显示列表不会继续引用旧的区域；仍有存活图像的页不调用 recycle()，由 GC 在显示列表释放后回收。
+ * 每写入一个槽位，整页位图都要重新上传为纹理，所以绘制路径上只写入新槽位，不做整理，整理留给{@link #compact()}及收缩。
+ * 当前帧（以{@link AnimationUtils#currentAnimationTimeMillis()}区分）绘制过的区域不会被淘汰：可见的图像多于图集容量时，
+ * 放不下的图像直接绘制形状，而不是淘汰另一个可见图像的区域，否则被淘汰的图像重绘时又淘汰下一个，列表会不停重绘。
+ *
+ * 作为{@link Trimmable}收缩时按页淘汰最久未使用的页，并限制之后的页数。
+ *
+ * 图集不是线程安全的，只能在主线程使用。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public class TextureAtlas implements Trimmable {
+
+    private final int mPageSize;
+    private final int mMaxPages;
+
+    private final List<Page>                       mPages   = new ArrayList<Page>();
+    private final HashMap<BitmapCache.Key, Region> mRegions = new HashMap<BitmapCache.Key, Region>();
+    private final Canvas                           mCanvas  = new Canvas();
+    private final Rect                             mSrc     = new Rect();
+
+    private int  mPageLimit;
+    private long mClock;
+    private int  mHitCount;
+    private int  mMissCount;
+    private int  mEvictionCount;
+    private int  mCompactionCount;
+
+    /**
+     * 创建纹理图集
+     *
+     * @param pageSize 每页位图的边长（像素）
+     * @param maxPages 最多的页数
+     *
+     * @return
+     */
+    public static TextureAtlas create(int pageSize, int maxPages) {
+        return new TextureAtlas(pageSize, maxPages);
+    }
+
+    private TextureAtlas(int pageSize, int maxPages) {
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("pageSize <= 0 || maxPages <= 0");
+        }
+        this.mPageSize = pageSize;
+        this.mMaxPages = maxPages;
+        this.mPageLimit = maxPages;
+    }
+
+    /**
+     * 获取图像在图集中的区域，不存在时分配槽位并光栅化
+     *
+     * @param key
+     * @param drawable
+     *
+     * @return 图集区域，图像尺寸超过页尺寸时返回null
+     */
+    Region obtain(BitmapCache.Key key, TextDrawable drawable) {
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        long frame = AnimationUtils.currentAnimationTimeMillis();
+        Region region = this.mRegions.get(key);
+        if (region != null) {
+            this.mHitCount++;
+            if (metrics != null) {
+                metrics.onCacheHit();
+            }
+            region.lastUsed = ++this.mClock;
+            region.frame = frame;
+            region.attach(drawable);
+            return region;
+        }
+        if (key.width() > this.mPageSize || key.height() > this.mPageSize) {
+            return null;
+        }
+
+        this.mMissCount++;
+        if (metrics != null) {
+            metrics.onCacheMiss();
+        }
+        region = allocate(key, frame);
+        if (region == null) {
+            return null;
+        }
+        region.lastUsed = ++this.mClock;
+        region.frame = frame;
+        region.attach(drawable);
+        this.mRegions.put(key, region);
+
+        // 光栅化到槽位
+        Rect dst = region.rect;
+        this.mCanvas.setBitmap(region.page.bitmap);
+        int count = this.mCanvas.save();
+        this.mCanvas.clipRect(dst);
+        this.mCanvas.drawColor(0, PorterDuff.Mode.CLEAR);
+        drawable.drawInto(this.mCanvas, dst.left, dst.top);
+        this.mCanvas.restoreToCount(count);
+        this.mCanvas.setBitmap(null);
+        return region;
+    }
+
+    /**
+     * 分配槽位，只能淘汰当前帧之前使用的区域
+     *
+     * @return 槽位，图集中的区域都在当前帧使用过时返回null
+     */
+    private Region allocate(BitmapCache.Key key, long frame) {
+        int cellWidth = key.width();
+        int cellHeight = key.height();
+
+        // 同尺寸页中的空闲槽位
+        for (int i = 0, size = this.mPages.size(); i < size; i++) {
+            Page page = this.mPages.get(i);
+            if (page.fits(cellWidth, cellHeight) && page.used < page.slots.length) {
+                return page.take(key);
+            }
+        }
+
+        // 新建一页
+        if (this.mPages.size() < this.mPageLimit) {
+            return addPage(cellWidth, cellHeight).take(key);
+        }
+
+        // 淘汰同尺寸页中最近最少使用的槽位
+        Region lru = null;
+        for (int i = 0, size = this.mPages.size(); i < size; i++) {
+            Page page = this.mPages.get(i);
+            if (page.fits(cellWidth, cellHeight)) {
+                Region candidate = page.leastRecentlyUsed();
+                if (candidate != null && (lru == null || candidate.lastUsed < lru.lastUsed)) {
+                    lru = candidate;
+                }
+            }
+        }
+        if (lru != null) {
+            if (lru.frame == frame) {
+                return null;
+            }
+            Page page = lru.page;
+            evict(lru);
+            return page.take(key);
+        }
+
+        // 没有同尺寸的页：整页淘汰最久未使用的页，不在绘制路径上整理，避免重写多页位图
+        Page oldest = oldestPage();
+        if (oldest.usedInFrame(frame)) {
+            return null;
+        }
+        removePage(oldest);
+        return addPage(cellWidth, cellHeight).take(key);
+    }
+
+    private Page oldestPage() {
+        Page oldest = null;
+        for (int i = 0, size = this.mPages.size(); i < size; i++) {
+            Page page = this.mPages.get(i);
+            if (oldest == null || page.lastUsed() < oldest.lastUsed()) {
+                oldest = page;
+            }
+        }
+        return oldest;
+    }
+
+    private Page addPage(int cellWidth, int cellHeight) {
+        Page page = new Page(this.mPageSize, cellWidth, cellHeight);
+        this.mPages.add(page);
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        if (metrics != null) {
+            metrics.onBitmapBytesChanged(page.bitmap.getByteCount());
+        }
+        return page;
+    }
+
+    /**
+     * 释放页的位图：仍有存活的图像使用页中的区域时不回收，它们的显示列表可能还引用这张位图
+     */
+    private void recyclePage(Page page, boolean referenced) {
+        TextDrawableMetrics metrics = TextDrawableMetrics.get();
+        if (metrics != null) {
+            metrics.onBitmapBytesChanged(-page.bitmap.getByteCount());
+        }
+        if (!referenced) {
+            page.bitmap.recycle();
+        }
+    }
+
+    private void evict(Region region) {
+        this.mRegions.remove(region.key);
+        region.page.release(region);
+        region.detachAll();
+        this.mEvictionCount++;
+    }
+
+    private void removePage(Page page) {
+        removePage(page, false);
+    }
+
+    /**
+     * 淘汰页中剩余的区域并移除页
+     *
+     * @param page
+     * @param referenced 页中已搬走的区域是否仍有存活的图像
+     */
+    private void removePage(Page page, boolean referenced) {
+        for (Region region : page.slots) {
+            if (region != null) {
+                referenced |= region.hasOwners();
+                evict(region);
+            }
+        }
+        this.mPages.remove(page);
+        recyclePage(page, referenced);
+    }
+
+    /**
+     * 整理图集：把同尺寸页中占用最少的页的图像搬到其他页的空闲槽位，回收搬空的页
+     *
+     * @return 回收的页数
+     */
+    public int compact() {
+        int freed = 0;
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            for (int i = 0, size = this.mPages.size(); i < size; i++) {
+                Page sparse = this.mPages.get(i);
+                if (sparse.used == 0) {
+                    removePage(sparse);
+                    freed++;
+                    moved = true;
+                    break;
+                }
+                int free = 0;
+                for (Page other : this.mPages) {
+                    if (other != sparse && other.fits(sparse.cellWidth, sparse.cellHeight) && other.used >= sparse.used) {
+                        free += other.slots.length - other.used;
+                    }
+                }
+                if (free >= sparse.used) {
+                    // 搬走的区域的图像可能仍在显示列表中引用这一页
+                    removePage(sparse, moveAll(sparse));
+                    freed++;
+                    moved = true;
+                    break;
+                }
+            }
+        }
+        if (freed > 0) {
+            this.mCompactionCount++;
+        }
+        return freed;
+    }
+
+    /**
+     * 把页中的区域搬到同尺寸的其他页
+     *
+     * @return 搬走的区域是否有存活的图像
+     */
+    private boolean moveAll(Page from) {
+        boolean referenced = false;
+        for (int s = 0; s < from.slots.length; s++) {
+            Region region = from.slots[s];
+            if (region == null) {
+                continue;
+            }
+            referenced |= region.hasOwners();
+            for (Page to : this.mPages) {
+                if (to != from && to.fits(from.cellWidth, from.cellHeight) && to.used < to.slots.length && to.used >= from.used) {
+                    this.mSrc.set(region.rect);
+                    from.release(region);
+                    to.place(region);
+                    this.mCanvas.setBitmap(to.bitmap);
+                    this.mCanvas.drawBitmap(from.bitmap, this.mSrc, region.rect, null);
+                    this.mCanvas.setBitmap(null);
+                    region.invalidateOwners();
+                    break;
+                }
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * 收缩图集：先整理，再淘汰最久未使用的页，直到页数不超过最多页数的 fraction 倍（至少保留一页的额度）
+     *
+     * @param fraction
+     *
+     * @return 回收的位图字节数
+     */
+    @Override
+    public long trimToFraction(float fraction) {
+        this.mPageLimit = Math.max(1, (int) Math.ceil(this.mMaxPages * fraction));
+        long before = size();
+        if (fraction <= 0f) {
+            evictAll();
+            return before;
+        }
+        if (this.mPages.size() > this.mPageLimit) {
+            compact();
+        }
+        while (this.mPages.size() > this.mPageLimit) {
+            removePage(oldestPage());
+        }
+        return before - size();
+    }
+
+    /**
+     * 清空图集并回收所有页
+     */
+    public void evictAll() {
+        for (Page page : this.mPages) {
+            boolean referenced = false;
+            for (Region region : page.slots) {
+                if (region != null) {
+                    referenced |= region.hasOwners();
+                    region.detachAll();
+                }
+            }
+            recyclePage(page, referenced);
+        }
+        this.mPages.clear();
+        this.mRegions.clear();
+    }
+
+    /**
+     * 当前页数
+     */
+    public int pageCount() {
+        return this.mPages.size();
+    }
+
+    /**
+     * 图集占用的字节数
+     */
+    public int size() {
+        int bytes = 0;
+        for (Page page : this.mPages) {
+            bytes += page.bitmap.getByteCount();
+        }
+        return bytes;
+    }
+
+    public int hitCount() {
+        return this.mHitCount;
+    }
+
+    public int missCount() {
+        return this.mMissCount;
+    }
+
+    public int evictionCount() {
+        return this.mEvictionCount;
+    }
+
+    public int compactionCount() {
+        return this.mCompactionCount;
+    }
+
+    /**
+     * 图集中的一块区域
+     */
+    static final class Region {
+
+        final Rect                                    rect   = new Rect();
+        final ArrayList<WeakReference<TextDrawable>> owners = new ArrayList<WeakReference<TextDrawable>>(1);
+        BitmapCache.Key key;
+        Page            page;
+        int             slot;
+        long            lastUsed;
+        long            frame;
+
+        Bitmap bitmap() {
+            return this.page.bitmap;
+        }
+
+        /**
+         * 记录使用区域的图像，已记录时不分配
+         */
+        void attach(TextDrawable drawable) {
+            ArrayList<WeakReference<TextDrawable>> owners = this.owners;
+            for (int i = owners.size() - 1; i >= 0; i--) {
+                TextDrawable owner = owners.get(i).get();
+                if (owner == drawable) {
+                    return;
+                }
+                if (owner == null) {
+                    owners.remove(i);
+                }
+            }
+            owners.add(new WeakReference<TextDrawable>(drawable));
+        }
+
+        boolean hasOwners() {
+            for (int i = 0, size = this.owners.size(); i < size; i++) {
+                if (this.owners.get(i).get() != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 区域的内容或位置变了，让使用它的图像重新绘制
+         */
+        void invalidateOwners() {
+            for (int i = 0, size = this.owners.size(); i < size; i++) {
+                TextDrawable owner = this.owners.get(i).get();
+                if (owner != null) {
+                    owner.invalidateSelf();
+                }
+            }
+        }
+
+        /**
+         * 区域被淘汰：让使用它的图像重新绘制（届时重新分配区域），并忘记它们
+         */
+        void detachAll() {
+            invalidateOwners();
+            this.owners.clear();
+        }
+    }
+
+    /**
+     * 一页位图，按固定尺寸的网格划分槽位
+     */
+    static final class Page {
+
+        final Bitmap   bitmap;
+        final int      cellWidth;
+        final int      cellHeight;
+        final int      columns;
+        final Region[] slots;
+        int            used;
+
+        Page(int pageSize, int cellWidth, int cellHeight) {
+            this.bitmap = Bitmap.createBitmap(pageSize, pageSize, Bitmap.Config.ARGB_8888);
+            this.cellWidth = cellWidth;
+            this.cellHeight = cellHeight;
+            this.columns = pageSize / cellWidth;
+            this.slots = new Region[this.columns * (pageSize / cellHeight)];
+        }
+
+        boolean fits(int cellWidth, int cellHeight) {
+            return this.cellWidth == cellWidth && this.cellHeight == cellHeight;
+        }
+
+        Region take(BitmapCache.Key key) {
+            Region region = new Region();
+            region.key = key;
+            place(region);
+            return region;
+        }
+
+        void place(Region region) {
+            for (int s = 0; s < this.slots.length; s++) {
+                if (this.slots[s] == null) {
+                    this.slots[s] = region;
+                    this.used++;
+                    region.page = this;
+                    region.slot = s;
+                    int left = (s % this.columns) * this.cellWidth;
+                    int top = (s / this.columns) * this.cellHeight;
+                    region.rect.set(left, top, left + this.cellWidth, top + this.cellHeight);
+                    return;
+                }
+            }
+            throw new IllegalStateException("page is full");
+        }
+
+        void release(Region region) {
+            this.slots[region.slot] = null;
+            this.used--;
+        }
+
+        Region leastRecentlyUsed() {
+            Region lru = null;
+            for (Region region : this.slots) {
+                if (region != null && (lru == null || region.lastUsed < lru.lastUsed)) {
+                    lru = region;
+                }
+            }
+            return lru;
+        }
+
+        boolean usedInFrame(long frame) {
+            for (Region region : this.slots) {
+                if (region != null && region.frame == frame) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long lastUsed() {
+            long lastUsed = 0;
+            for (Region region : this.slots) {
+                if (region != null && region.lastUsed > lastUsed) {
+                    lastUsed = region.lastUsed;
+                }
+            }
+            return lastUsed;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.pzj.library;
+
+/**
+ * 可按内存压力收缩的缓存
+ *
+ * 由{@link AvatarMemoryController}在收到内存回调时调用，实现需要在调用线程（通常是主线程）上立即完成收缩。
+ *
+ * @author PengZhenjin
+ * @date 2017-6-27
+ */
+public interface Trimmable {
+
+    /**
+     * 收缩到最大容量的 fraction 倍，并在之后的使用中不超过这一容量，直到下一次调用放宽
+     *
+     * @param fraction 保留比例，0 表示清空，1 表示恢复到最大容量
+     *
+     * @return 释放的字节数，无法估算时返回0
+     */
+    long trimToFraction(float fraction);
+}
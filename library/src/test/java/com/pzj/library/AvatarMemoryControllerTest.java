@@ -0,0 +1,124 @@
+package com.pzj.library;
+
+import android.content.ComponentCallbacks2;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * AvatarMemoryController 单元测试，模拟内存回调
+ */
+public class AvatarMemoryControllerTest {
+
+    /**
+     * 按字节计数的模拟缓存：收缩时释放超出容量的部分，放宽后可以重新填满
+     */
+    private static final class FakeCache implements Trimmable {
+
+        final long        maxBytes;
+        final List<Float> fractions = new ArrayList<Float>();
+        long              limit;
+        long              size;
+
+        FakeCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+            this.limit = maxBytes;
+        }
+
+        void fill() {
+            this.size = this.limit;
+        }
+
+        @Override
+        public long trimToFraction(float fraction) {
+            this.fractions.add(fraction);
+            this.limit = (long) (this.maxBytes * fraction);
+            long reclaimed = Math.max(0, this.size - this.limit);
+            this.size -= reclaimed;
+            return reclaimed;
+        }
+    }
+
+    @Test
+    public void fractionFor_mapsLevels() throws Exception {
+        assertEquals(1f, AvatarMemoryController.fractionFor(0), 0f);
+        assertEquals(0.75f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE), 0f);
+        assertEquals(0.5f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW), 0f);
+        assertEquals(0.25f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL), 0f);
+        assertEquals(0.5f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN), 0f);
+        assertEquals(0.5f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND), 0f);
+        assertEquals(0.25f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_MODERATE), 0f);
+        assertEquals(0f, AvatarMemoryController.fractionFor(ComponentCallbacks2.TRIM_MEMORY_COMPLETE), 0f);
+    }
+
+    @Test
+    public void onTrimMemory_trimsAllAndReportsReclaimedBytes() throws Exception {
+        AvatarMemoryController controller = AvatarMemoryController.create();
+        FakeCache bitmaps = new FakeCache(4000);
+        FakeCache atlas = new FakeCache(1000);
+        bitmaps.fill();
+        atlas.fill();
+        controller.register(bitmaps);
+        controller.register(atlas);
+
+        final long[] reported = new long[2];
+        controller.setOnTrimListener(new AvatarMemoryController.OnTrimListener() {
+            @Override
+            public void onTrimmed(int level, float fraction, long reclaimedBytes) {
+                reported[0] = level;
+                reported[1] = reclaimedBytes;
+            }
+        });
+
+        controller.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+        assertEquals(2000, bitmaps.size);
+        assertEquals(500, atlas.size);
+        assertEquals(2500, controller.getLastReclaimedBytes());
+        assertEquals(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND, reported[0]);
+        assertEquals(2500, reported[1]);
+
+        controller.onLowMemory();
+        assertEquals(0, bitmaps.size);
+        assertEquals(0, atlas.size);
+        assertEquals(2500, controller.getLastReclaimedBytes());
+        assertEquals(5000, controller.getTotalReclaimedBytes());
+    }
+
+    @Test
+    public void milderLevel_growsBack() throws Exception {
+        AvatarMemoryController controller = AvatarMemoryController.create();
+        FakeCache cache = new FakeCache(1000);
+        controller.register(cache);
+
+        controller.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertEquals(250, cache.limit);
+
+        controller.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertEquals(750, cache.limit);
+
+        controller.restore();
+        assertEquals(1000, cache.limit);
+        assertEquals(1f, controller.getFraction(), 0f);
+    }
+
+    @Test
+    public void register_underPressure_trimsImmediately() throws Exception {
+        AvatarMemoryController controller = AvatarMemoryController.create();
+        controller.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_MODERATE);
+
+        FakeCache cache = new FakeCache(1000);
+        cache.fill();
+        controller.register(cache);
+        assertEquals(250, cache.size);
+
+        // registering twice is a no-op
+        controller.register(cache);
+        assertEquals(1, cache.fractions.size());
+
+        controller.unregister(cache);
+        controller.restore();
+        assertEquals(250, cache.limit);
+    }
+}
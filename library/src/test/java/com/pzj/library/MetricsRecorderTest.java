@@ -0,0 +1,51 @@
+package com.pzj.library;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * MetricsRecorder 单元测试
+ */
+public class MetricsRecorderTest {
+
+    @Test
+    public void bucketFor_powersOfTwo() throws Exception {
+        assertEquals(0, MetricsRecorder.bucketFor(0));
+        assertEquals(0, MetricsRecorder.bucketFor(1));
+        assertEquals(1, MetricsRecorder.bucketFor(2));
+        assertEquals(1, MetricsRecorder.bucketFor(3));
+        assertEquals(10, MetricsRecorder.bucketFor(1024));
+        assertEquals(MetricsRecorder.BUCKET_COUNT - 1, MetricsRecorder.bucketFor(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void snapshot_countsAndPercentiles() throws Exception {
+        MetricsRecorder recorder = new MetricsRecorder();
+        for (int i = 0; i < 99; i++) {
+            recorder.onDraw(1000);
+        }
+        recorder.onDraw(1000000);
+        recorder.onDrawableCreated();
+        recorder.onBuilderCreated();
+        recorder.onCacheHit();
+        recorder.onCacheMiss();
+        recorder.onBitmapBytesChanged(4096);
+        recorder.onBitmapBytesChanged(-1024);
+
+        MetricsRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(100, snapshot.getDrawCount());
+        assertEquals(99 * 1000 + 1000000, snapshot.getDrawNanos());
+        assertEquals(1024, snapshot.getDrawNanosPercentile(0.5));
+        assertEquals(1L << 20, snapshot.getDrawNanosPercentile(1.0));
+        assertEquals(1, snapshot.getDrawableCount());
+        assertEquals(1, snapshot.getBuilderCount());
+        assertEquals(1, snapshot.getCacheHitCount());
+        assertEquals(1, snapshot.getCacheMissCount());
+        assertEquals(3072, snapshot.getBitmapBytes());
+
+        recorder.reset();
+        assertEquals(0, recorder.snapshot().getDrawCount());
+        assertEquals(3072, recorder.snapshot().getBitmapBytes());
+    }
+}
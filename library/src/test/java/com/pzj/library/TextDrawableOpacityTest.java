@@ -0,0 +1,52 @@
+package com.pzj.library;
+
+import android.graphics.PixelFormat;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TextDrawable 不透明度单元测试
+ */
+public class TextDrawableOpacityTest {
+
+    private static final int OPAQUE_BG      = 0xffe57373;
+    private static final int TRANSLUCENT_BG = 0x80e57373;
+
+    @Test
+    public void rect_opaqueBackground_isOpaque() throws Exception {
+        assertEquals(PixelFormat.OPAQUE, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, OPAQUE_BG, 0, "A", 0xff));
+        assertEquals(PixelFormat.OPAQUE, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, OPAQUE_BG, 4, "A", 0xff));
+    }
+
+    @Test
+    public void rect_textAlpha_staysOpaque() throws Exception {
+        assertEquals(PixelFormat.OPAQUE, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, OPAQUE_BG, 0, "A", 0x40));
+        assertEquals(PixelFormat.OPAQUE, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, OPAQUE_BG, 0, "A", 0));
+    }
+
+    @Test
+    public void rect_translucentBackground_isTranslucent() throws Exception {
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, TRANSLUCENT_BG, 0, "A", 0xff));
+    }
+
+    @Test
+    public void round_isTranslucent() throws Exception {
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_ROUND, OPAQUE_BG, 0, "A", 0xff));
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_ROUND, OPAQUE_BG, 4, "A", 0xff));
+    }
+
+    @Test
+    public void roundRect_isTranslucent() throws Exception {
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_ROUND_RECT, OPAQUE_BG, 0, "A", 0xff));
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_ROUND_RECT, OPAQUE_BG, 4, "A", 0xff));
+    }
+
+    @Test
+    public void nothingVisible_isTransparent() throws Exception {
+        assertEquals(PixelFormat.TRANSPARENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, 0, 0, "A", 0));
+        assertEquals(PixelFormat.TRANSPARENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_ROUND, 0, 0, "", 0xff));
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_ROUND, 0, 2, "", 0xff));
+        assertEquals(PixelFormat.TRANSLUCENT, TextDrawable.resolveOpacity(TextDrawableSpec.SHAPE_RECT, 0, 0, "A", 0xff));
+    }
+}
@@ -0,0 +1,82 @@
+package com.pzj.library;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * TextDrawableTemplate 单元测试
+ */
+public class TextDrawableTemplateTest {
+
+    private static final int THREADS    = 8;
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void spec_firstLetterUpperCase() throws Exception {
+        TextDrawableTemplate template = template(true);
+        assertEquals("A", template.spec("abc", 0, 0).getText());
+        assertEquals("a", template(false).spec("abc", 0, 0).getText());
+        assertEquals("", template.spec("", 0, 0).getText());
+        assertNull(template.spec(null, 0, 0).getText());
+    }
+
+    @Test
+    public void spec_sameInput_equalSpecs() throws Exception {
+        TextDrawableTemplate template = template(true);
+        assertEquals(template.spec("x", 1, 2), template.spec("xyz", 1, 2));
+        assertSame(template, template.toTemplate());
+    }
+
+    @Test
+    public void spec_paletteIndex_usesDerivedColors() throws Exception {
+        ColorGenerator palette = ColorGenerator.MATERIAL;
+        int index = palette.getColorIndex("Alice");
+        TextDrawableSpec spec = template(true).spec("Alice", index);
+        assertEquals(palette.getColor("Alice"), spec.getBgColor());
+        assertEquals(palette.getBorderColor(index), spec.getBorderColor());
+        assertEquals(palette.getTextColor(index), spec.getTextColor());
+        assertEquals(spec, template(true).spec("A", palette.getTextColor(index), palette.getColorAt(index)));
+    }
+
+    @Test
+    public void spec_concurrentCalls_neverMixInputs() throws Exception {
+        final TextDrawableTemplate template = template(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        String text = String.valueOf((char) ('a' + id));
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            TextDrawableSpec spec = template.spec(text, id, i);
+                            if (!text.toUpperCase().equals(spec.getText()) || spec.getTextColor() != id || spec.getBgColor() != i) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }
+                    catch (InterruptedException e) {
+                        failures.incrementAndGet();
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        assertEquals(0, failures.get());
+    }
+
+    private static TextDrawableTemplate template(boolean toUpperCase) {
+        return new TextDrawableTemplate(0, -1, -1, -1, false, false, toUpperCase, 0, null, TextDrawableSpec.SHAPE_RECT, null, null, InitialsExtractor.DEFAULT, ColorGenerator.MATERIAL, false, 0);
+    }
+}